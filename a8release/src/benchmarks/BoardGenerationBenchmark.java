@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import generation.DelaunayTriangulation.Engine;
+import models.Board;
+
+/** Measures the time and peak heap needed to generate Boards of increasing
+ * size, to check that both grow about linearly with the number of Nodes, and
+ * the heap each Board retains once it is built.
+ *
+ * Usage: BoardGenerationBenchmark [-offheap] [-engine ENGINE] [NODES ...]
+ * Each Board has exactly NODES Nodes (default: 1000 10000 100000 1000000)
+ * spread over a square whose area grows with NODES, so that Boards have the
+ * same density as a 750-Node game. With -offheap, Boards keep their Nodes and
+ * Edges off the heap; ENGINE names the DelaunayTriangulation.Engine to use
+ * (default: HISTORY_DAG). Give the JVM enough heap (e.g. -Xmx4g) for the largest
+ * Board, and with -offheap enough direct memory (-XX:MaxDirectMemorySize). */
+public class BoardGenerationBenchmark {
+
+	/* Area of the board per Node, matching a 750-Node 4096 x 4096 game. */
+	private static final double AREA_PER_NODE= 4096.0 * 4096.0 / 750;
+
+	/* Number of times each size is generated; the fastest run is reported. */
+	private static final int RUNS= 3;
+
+	public static void main(String[] args) {
+		boolean offHeap= false;
+		Engine engine= Engine.HISTORY_DAG;
+		int first= 0;
+		while (first < args.length && args[first].startsWith("-")) {
+			if (args[first].equals("-engine"))
+				engine= Engine.valueOf(args[++first]);
+			else if (args[first].equals("-offheap"))
+				offHeap= true;
+			else
+				throw new IllegalArgumentException("unknown option " + args[first]);
+			++first;
+		}
+		int[] sizes= { 1000, 10000, 100000, 1000000 };
+		if (args.length > first) {
+			sizes= new int[args.length - first];
+			for (int i= first; i < args.length; ++i)
+				sizes[i - first]= Integer.parseInt(args[i]);
+		}
+
+		System.out.printf("%10s %10s %10s %10s %12s %12s %12s%n", "nodes", "side",
+			"ms", "peak MB", "ns/node", "bytes/node", "retained MB");
+		for (int n : sizes) {
+			int side= (int) Math.min(Board.MAX_SIZE,
+				Math.ceil(Math.sqrt(n * AREA_PER_NODE)));
+			long best= Long.MAX_VALUE;
+			long peak= 0;
+			long retained= 0;
+			for (int run= 0; run < RUNS; ++run) {
+				long before= resetHeap();
+				long start= System.nanoTime();
+				Board b= new Board.BoardBuilder().size(side, side).seed(run)
+					.nodeBounds(n, n).gemBounds(0, 5000).offHeap(offHeap)
+					.engine(engine).build();
+				best= Math.min(best, System.nanoTime() - start);
+				peak= Math.max(peak, peakHeap() - before);
+				retained= Math.max(retained, resetHeap() - before);
+				if (b.earth() == null) throw new AssertionError();
+			}
+			System.out.printf("%10d %10d %10.1f %10.1f %12.0f %12.0f %12.1f%n", n,
+				side, best / 1e6, peak / 1e6, (double) best / n, (double) peak / n,
+				retained / 1e6);
+		}
+	}
+
+	/** Collect garbage, reset the peak usage of all heap pools, and return
+	 * the heap used now. */
+	static long resetHeap() {
+		System.gc();
+		long used= 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+				used += pool.getUsage().getUsed();
+			}
+		}
+		return used;
+	}
+
+	/** Return the sum of the peak usages of all heap pools since the last
+	 * call to resetHeap. This overestimates the live data a little, since
+	 * the pools peak at different times. */
+	static long peakHeap() {
+		long peak= 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+}
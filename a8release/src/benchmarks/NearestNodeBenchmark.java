@@ -0,0 +1,189 @@
+package benchmarks;
+
+import java.awt.geom.Point2D;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import models.Board;
+import models.Node;
+
+/** Measures nearest-Node queries on a Board (NodeProximityGrid) against the
+ * grid of boxed LinkedLists it used to keep, which stopped at the first ring
+ * of rectangles holding a Node and so could return a Node that is not the
+ * nearest. Reports the time and bytes allocated per query, and how many
+ * answers of the old grid were not the nearest Node.
+ *
+ * Usage: NearestNodeBenchmark [NODES ...]
+ * For each NODES (default: 750 100000 1000000), a Board with that many Nodes
+ * and the density of a 750-Node game is queried with two workloads: "click",
+ * uniform points over the Board and a margin around it, like GUI hit-testing,
+ * and "planner", points within a few units of a Node. */
+public class NearestNodeBenchmark {
+
+	/* Area of the board per Node, matching a 750-Node 4096 x 4096 game. */
+	private static final double AREA_PER_NODE= 4096.0 * 4096.0 / 750;
+
+	/* Number of queries per run, and of warm-up and measured runs; the
+	 * fastest measured run is reported. */
+	private static final int QUERIES= 200000, WARMUP= 3, RUNS= 5;
+
+	public static void main(String[] args) {
+		int[] sizes= { 750, 100000, 1000000 };
+		if (args.length > 0) {
+			sizes= new int[args.length];
+			for (int i= 0; i < args.length; ++i)
+				sizes[i]= Integer.parseInt(args[i]);
+		}
+
+		System.out.printf("%10s %8s %8s %10s %12s %10s%n", "nodes", "queries",
+			"grid", "ns/query", "bytes/query", "not nearest");
+		for (int n : sizes) {
+			int side= (int) Math.ceil(Math.sqrt(n * AREA_PER_NODE));
+			Board b= new Board.BoardBuilder().size(side, side).seed(n)
+				.nodeBounds(n, n).gemBounds(0, 5000).build();
+			LegacyGrid legacy= new LegacyGrid(side, side);
+			List<Node> nodes= new ArrayList<>(n);
+			for (Node m : b.nodes()) {
+				legacy.addNode(m);
+				nodes.add(m);
+			}
+
+			Random r= new Random(n);
+			for (String workload : new String[] { "click", "planner" }) {
+				Point2D[] qs= new Point2D[QUERIES];
+				for (int i= 0; i < QUERIES; ++i) {
+					if (workload.equals("click")) {
+						qs[i]= new Point2D.Double(side * (1.2 * r.nextDouble() - 0.1),
+							side * (1.2 * r.nextDouble() - 0.1));
+					} else {
+						Node m= nodes.get(r.nextInt(n));
+						qs[i]= new Point2D.Double(m.x() + 8 * r.nextGaussian(),
+							m.y() + 8 * r.nextGaussian());
+					}
+				}
+
+				int wrong= 0;
+				for (Point2D q : qs) {
+					Node was= legacy.closestNode(q), is= b.closestNode(q);
+					if (q.distanceSq(was.x(), was.y()) > q.distanceSq(is.x(), is.y()))
+						++wrong;
+				}
+				measure(n, workload + "/old", qs, q -> legacy.closestNode(q), wrong);
+				measure(n, workload + "/new", qs, q -> b.closestNode(q), 0);
+			}
+		}
+	}
+
+	/** Time query on all of qs and print one row of results for n Nodes,
+	 * where wrong answers were not the nearest Node. */
+	private static void measure(int n, String name, Point2D[] qs,
+		Function<Point2D, Node> query, int wrong) {
+		com.sun.management.ThreadMXBean threads=
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread= Thread.currentThread().getId();
+
+		long sink= 0;
+		for (int run= 0; run < WARMUP; ++run) {
+			for (Point2D q : qs)
+				sink += query.apply(q).id();
+		}
+		long best= Long.MAX_VALUE;
+		long allocated= Long.MAX_VALUE;
+		for (int run= 0; run < RUNS; ++run) {
+			long bytes= threads.getThreadAllocatedBytes(thread);
+			long start= System.nanoTime();
+			for (Point2D q : qs)
+				sink += query.apply(q).id();
+			best= Math.min(best, System.nanoTime() - start);
+			allocated= Math.min(allocated,
+				threads.getThreadAllocatedBytes(thread) - bytes);
+		}
+		if (sink == 42) System.out.print("");
+		int slash= name.indexOf('/');
+		System.out.printf("%10d %8s %8s %10.0f %12.1f %10d%n", n,
+			name.substring(0, slash), name.substring(slash + 1),
+			(double) best / qs.length, (double) allocated / qs.length, wrong);
+	}
+
+	/** NodeProximityGrid as it was: a grid of LinkedLists of 64 x 64
+	 * rectangles (larger for large boards), searched in rings until one
+	 * holds a Node, with a new LinkedList of candidates per ring. */
+	private static class LegacyGrid {
+
+		/* The rectangles, by row and column, and their dimensions. */
+		private final List<List<List<Node>>> rs= new ArrayList<>();
+		private final int rectWidth, rectHeight;
+
+		/** Constructor: an empty grid over [0, width] x [0, height]. */
+		LegacyGrid(int width, int height) {
+			int rw= 64, rh= 64;
+			while ((long) (width / rw + 1) * (height / rh + 1) > 1 << 16) {
+				rw *= 2;
+				rh *= 2;
+			}
+			rectWidth= rw;
+			rectHeight= rh;
+			for (int i= 0; i < height / rh + 1; ++i) {
+				List<List<Node>> row= new ArrayList<>();
+				for (int j= 0; j < width / rw + 1; ++j)
+					row.add(new LinkedList<Node>());
+				rs.add(row);
+			}
+		}
+
+		/** Add Node n to this grid. */
+		void addNode(Node n) {
+			rs.get(n.y() / rectHeight).get(n.x() / rectWidth).add(n);
+		}
+
+		/** Return a Node close to p, as the old grid did. */
+		Node closestNode(Point2D p) {
+			int rows= rs.size(), cols= rs.get(0).size();
+			int ri= Math.max(0, Math.min(rows - 1, (int) p.getY() / rectHeight));
+			int rj= Math.max(0, Math.min(cols - 1, (int) p.getX() / rectWidth));
+			Node n= closestOfList(rs.get(ri).get(rj), p);
+			int imin= Math.max(ri - 1, 0), imax= Math.min(ri + 1, rows - 1);
+			int jmin= Math.max(rj - 1, 0), jmax= Math.min(rj + 1, cols - 1);
+			do {
+				List<Node> ns= new LinkedList<Node>();
+				ns.add(n);
+				for (int i= imin; i <= imax; ++i) {
+					ns.add(closestOfList(rs.get(i).get(jmin), p));
+					ns.add(closestOfList(rs.get(i).get(jmax), p));
+				}
+				for (int j= jmin + 1; j < jmax; ++j) {
+					ns.add(closestOfList(rs.get(imin).get(j), p));
+					ns.add(closestOfList(rs.get(imax).get(j), p));
+				}
+				n= closestOfList(ns, p);
+				imin= Math.max(imin - 1, 0);
+				imax= Math.min(imax + 1, rows - 1);
+				jmin= Math.max(jmin - 1, 0);
+				jmax= Math.min(jmax + 1, cols - 1);
+			} while (n == null);
+			return n;
+		}
+
+		/** Return the Node in ns closest to p, or null if there is none. */
+		private static Node closestOfList(List<Node> ns, Point2D p) {
+			if (ns.isEmpty()) return null;
+			Node closest= ns.get(0);
+			double dist= Double.MAX_VALUE;
+			for (Node n : ns) {
+				if (n != null) {
+					double d= Math.sqrt((n.x() - p.getX()) * (n.x() - p.getX())
+						+ (n.y() - p.getY()) * (n.y() - p.getY()));
+					if (dist > d) {
+						dist= d;
+						closest= n;
+					}
+				}
+			}
+			return closest;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.awt.Point;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+import generation.Triangle;
+
+/** Measures the time and the bytes allocated per point by the insertion loop
+ * of the history-DAG triangulation (Triangle.addPoint), where every point is
+ * located by descending the history of all Triangles.
+ *
+ * Usage: PointLocationBenchmark [POINTS ...]
+ * For each POINTS (default: 10000 100000), that many random points in a
+ * square with the density of a 750-Node game are added to a bounding
+ * Triangle, after a few warm-up runs. */
+public class PointLocationBenchmark {
+
+	/* Area of the board per point, matching a 750-Node 4096 x 4096 game. */
+	private static final double AREA_PER_POINT= 4096.0 * 4096.0 / 750;
+
+	/* Number of warm-up runs and measured runs per size; the fastest measured
+	 * run is reported. */
+	private static final int WARMUP= 3, RUNS= 5;
+
+	public static void main(String[] args) {
+		int[] sizes= { 10000, 100000 };
+		if (args.length > 0) {
+			sizes= new int[args.length];
+			for (int i= 0; i < args.length; ++i)
+				sizes[i]= Integer.parseInt(args[i]);
+		}
+		com.sun.management.ThreadMXBean threads=
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread= Thread.currentThread().getId();
+
+		System.out.printf("%10s %10s %10s %12s%n", "points", "ms", "ns/point",
+			"bytes/point");
+		for (int n : sizes) {
+			int side= (int) Math.ceil(Math.sqrt(n * AREA_PER_POINT));
+			Point[] pts= new Point[n];
+			Random r= new Random(n);
+			for (int i= 0; i < n; ++i)
+				pts[i]= new Point(r.nextInt(side + 1), r.nextInt(side + 1));
+
+			for (int run= 0; run < WARMUP; ++run)
+				insertAll(pts, side);
+			long best= Long.MAX_VALUE;
+			long allocated= Long.MAX_VALUE;
+			for (int run= 0; run < RUNS; ++run) {
+				System.gc();
+				long bytes= threads.getThreadAllocatedBytes(thread);
+				long start= System.nanoTime();
+				insertAll(pts, side);
+				best= Math.min(best, System.nanoTime() - start);
+				allocated= Math.min(allocated,
+					threads.getThreadAllocatedBytes(thread) - bytes);
+			}
+			System.out.printf("%10d %10.1f %10.0f %12.0f%n", n, best / 1e6,
+				(double) best / n, (double) allocated / n);
+		}
+	}
+
+	/** Add pts, in order, to a triangulation bounded as DelaunayTriangulation
+	 * bounds a side x side square, and return the number of points added. */
+	private static int insertAll(Point[] pts, int side) {
+		Set<Triangle> ts= new LinkedHashSet<>();
+		Triangle outer= new Triangle(new Point(-side, -side),
+			new Point(-side, 3 * side), new Point(3 * side, -side));
+		ts.add(outer);
+		int added= 0;
+		for (Point p : pts) {
+			if (outer.addPoint(p, ts)) ++added;
+		}
+		return added;
+	}
+}
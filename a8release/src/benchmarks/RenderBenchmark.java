@@ -0,0 +1,95 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
+
+import gui.SpacePanel;
+import models.Board;
+import models.PlanetXModel;
+
+/** Measures the time SpacePanel takes to draw a frame of Boards of
+ * increasing size at several zoom levels, without a display.
+ *
+ * Usage: RenderBenchmark [NODES ...]
+ * For each NODES (default: 750 100000 1000000), a Board with that many Nodes
+ * and the density of a 750-Node game is drawn into a 1200 x 800 image at
+ * zooms 1, 4 and 10, starting with the view centered on the Board, with the
+ * camera still and with the camera panning right. Run with
+ * -Djava.awt.headless=true where there is no display, and give the JVM
+ * enough heap (e.g. -Xmx4g) for the largest Board. */
+public class RenderBenchmark {
+
+	/* Area of the board per Node, matching a 750-Node 4096 x 4096 game. */
+	private static final double AREA_PER_NODE= 4096.0 * 4096.0 / 750;
+
+	/* The dimensions of the panel drawn. */
+	private static final int WIDTH= 1200, HEIGHT= 800;
+
+	/* The zoom levels measured. */
+	private static final int[] ZOOMS= { 1, 4, 10 };
+
+	/* The time spent drawing frames to warm up, and timed, at each zoom, in
+	 * ns; at least 3 frames are timed. */
+	private static final long WARMUP= 1000000000, TIMED= 3000000000L;
+
+	public static void main(String[] args) {
+		int[] sizes= { 750, 100000, 1000000 };
+		if (args.length > 0) {
+			sizes= new int[args.length];
+			for (int i= 0; i < args.length; ++i)
+				sizes[i]= Integer.parseInt(args[i]);
+		}
+
+		BufferedImage image= new BufferedImage(WIDTH, HEIGHT,
+			BufferedImage.TYPE_INT_RGB);
+		System.out.printf("%10s %6s %8s %8s %12s %10s%n", "nodes", "zoom",
+			"camera", "frames", "ms/frame", "fps");
+		for (int n : sizes) {
+			int side= (int) Math.ceil(Math.sqrt(n * AREA_PER_NODE));
+			Board b= new Board.BoardBuilder().size(side, side).seed(n)
+				.nodeBounds(n, n).gemBounds(0, 5000).build();
+			PlanetXModel model= new PlanetXModel(b);
+			SpacePanel panel= new SpacePanel(WIDTH, HEIGHT);
+			panel.setSize(WIDTH, HEIGHT);
+
+			KeyListener camera= panel.spacePanelCameraMover();
+			KeyEvent right= new KeyEvent(panel, KeyEvent.KEY_PRESSED, 0, 0,
+				KeyEvent.VK_RIGHT, KeyEvent.CHAR_UNDEFINED);
+			for (int zoom : ZOOMS) {
+				for (boolean pan : new boolean[] { false, true }) {
+					panel.init(model); // centers the view
+					panel.setZoom(zoom);
+					if (pan) camera.keyPressed(right);
+					long start= System.nanoTime();
+					while (System.nanoTime() - start < WARMUP)
+						draw(panel, image);
+					int frames= 0;
+					long time;
+					start= System.nanoTime();
+					do {
+						panel.update();
+						draw(panel, image);
+						++frames;
+						time= System.nanoTime() - start;
+					} while (frames < 3 || time < TIMED);
+					camera.keyReleased(right);
+					double ms= time / 1e6 / frames;
+					System.out.printf("%10d %6d %8s %8d %12.2f %10.1f%n", n, zoom,
+						pan ? "panning" : "still", frames, ms, 1000 / ms);
+				}
+			}
+		}
+	}
+
+	/** Draw panel into image. */
+	private static void draw(SpacePanel panel, BufferedImage image) {
+		Graphics2D g= image.createGraphics();
+		try {
+			panel.paint(g);
+		} finally {
+			g.dispose();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package benchmarks;
+
+import java.awt.geom.Point2D;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+import models.Board;
+import models.Node;
+
+/** Measures the k-nearest-Node and range queries of a Board's spatial index
+ * (NodeProximityGrid) against scanning every Node.
+ *
+ * Usage: SpatialQueryBenchmark [NODES ...]
+ * For each NODES (default: 750 10000 100000 1000000), a Board with that many
+ * Nodes and the density of a 750-Node game is queried at points near random
+ * Nodes for: the 8 and 64 closest Nodes; the Nodes within a circle holding
+ * about 50 Nodes; and the Nodes within a 1024 x 768 viewport. The time and
+ * bytes allocated per query are reported, and the mean number of Nodes
+ * found. */
+public class SpatialQueryBenchmark {
+
+	/* Area of the board per Node, matching a 750-Node 4096 x 4096 game. */
+	private static final double AREA_PER_NODE= 4096.0 * 4096.0 / 750;
+
+	/* Number of queries per run of the index, and of warm-up and measured
+	 * runs; the fastest measured run is reported. Scans run on at most
+	 * SCANNED Nodes per run in total. */
+	private static final int QUERIES= 20000, WARMUP= 3, RUNS= 5;
+	private static final long SCANNED= 50000000;
+
+	public static void main(String[] args) {
+		int[] sizes= { 750, 10000, 100000, 1000000 };
+		if (args.length > 0) {
+			sizes= new int[args.length];
+			for (int i= 0; i < args.length; ++i)
+				sizes[i]= Integer.parseInt(args[i]);
+		}
+
+		System.out.printf("%10s %10s %6s %12s %12s %8s%n", "nodes", "query",
+			"method", "ns/query", "bytes/query", "found");
+		for (int n : sizes) {
+			int side= (int) Math.ceil(Math.sqrt(n * AREA_PER_NODE));
+			Board b= new Board.BoardBuilder().size(side, side).seed(n)
+				.nodeBounds(n, n).gemBounds(0, 5000).build();
+			List<Node> nodes= new ArrayList<>(n);
+			for (Node m : b.nodes())
+				nodes.add(m);
+
+			Random r= new Random(n);
+			Point2D[] qs= new Point2D[QUERIES];
+			for (int i= 0; i < QUERIES; ++i) {
+				Node m= nodes.get(r.nextInt(n));
+				qs[i]= new Point2D.Double(m.x() + 0.5, m.y() + 0.5);
+			}
+			int scans= (int) Math.max(1, Math.min(QUERIES, SCANNED / n));
+			Point2D[] few= Arrays.copyOf(qs, scans);
+			double radius= Math.sqrt(50 * AREA_PER_NODE / Math.PI);
+
+			for (int k : new int[] { 8, 64 }) {
+				Node[] out= new Node[k];
+				double[] distSq= new double[k];
+				measure(n, "knn" + k, "index", qs,
+					q -> b.closestNodes(q, out, distSq));
+				measure(n, "knn" + k, "scan", few, q -> scanClosest(nodes, q, out,
+					distSq));
+			}
+
+			Node[] out= new Node[4096];
+			measure(n, "circle", "index", qs, q -> b.nodesInCircle(q, radius, out));
+			measure(n, "circle", "scan", few, q -> {
+				int found= 0;
+				for (Node m : nodes) {
+					if (q.distanceSq(m.x(), m.y()) <= radius * radius)
+						out[found++ & 4095]= m;
+				}
+				return found;
+			});
+			measure(n, "viewport", "index", qs, q -> b.nodesInRectangle(
+				q.getX() - 512, q.getY() - 384, q.getX() + 512, q.getY() + 384, out));
+			measure(n, "viewport", "scan", few, q -> {
+				int found= 0;
+				for (Node m : nodes) {
+					if (Math.abs(m.x() - q.getX()) <= 512
+						&& Math.abs(m.y() - q.getY()) <= 384)
+						out[found++ & 4095]= m;
+				}
+				return found;
+			});
+		}
+	}
+
+	/** Store the out.length Nodes of nodes closest to q in out, by scanning
+	 * them all, and return their number. */
+	private static int scanClosest(List<Node> nodes, Point2D q, Node[] out,
+		double[] distSq) {
+		int size= 0, k= out.length;
+		for (Node m : nodes) {
+			double d= q.distanceSq(m.x(), m.y());
+			if (size == k && d >= distSq[k - 1]) continue;
+			int i= size == k ? k - 1 : size++;
+			for (; i > 0 && distSq[i - 1] > d; --i) {
+				out[i]= out[i - 1];
+				distSq[i]= distSq[i - 1];
+			}
+			out[i]= m;
+			distSq[i]= d;
+		}
+		return size;
+	}
+
+	/** Time query on all of qs and print one row of results for n Nodes. */
+	private static void measure(int n, String name, String method,
+		Point2D[] qs, ToIntFunction<Point2D> query) {
+		com.sun.management.ThreadMXBean threads=
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread= Thread.currentThread().getId();
+
+		long found= 0;
+		for (int run= 0; run < WARMUP; ++run) {
+			for (Point2D q : qs)
+				found += query.applyAsInt(q);
+		}
+		found= 0;
+		long best= Long.MAX_VALUE;
+		long allocated= Long.MAX_VALUE;
+		for (int run= 0; run < RUNS; ++run) {
+			long bytes= threads.getThreadAllocatedBytes(thread);
+			long start= System.nanoTime();
+			for (Point2D q : qs)
+				found += query.applyAsInt(q);
+			best= Math.min(best, System.nanoTime() - start);
+			allocated= Math.min(allocated,
+				threads.getThreadAllocatedBytes(thread) - bytes);
+		}
+		System.out.printf("%10d %10s %6s %12.0f %12.1f %8.1f%n", n, name, method,
+			(double) best / qs.length, (double) allocated / qs.length,
+			(double) found / RUNS / qs.length);
+	}
+}
@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import generation.TiledGenerator;
+
+/** Measures the time and peak heap needed to generate boards tile by tile,
+ * to check that the heap stays bounded by the size of a tile rather than the
+ * size of the board.
+ *
+ * Usage: TiledGenerationBenchmark [-threads T] [-tile POINTS] [-out FILE]
+ *        [NODES ...]
+ * Each board has exactly NODES nodes (default: 1000000 10000000) spread over a
+ * square with the density of a 750-Node game, in tiles of about POINTS points
+ * (default: TiledGenerator.DEFAULT_TILE_POINTS), triangulated on T threads
+ * (default: the number of available processors). The boards are written to
+ * FILE (overwritten for each size), or else only counted. */
+public class TiledGenerationBenchmark {
+
+	/* Area of the board per Node, matching a 750-Node 4096 x 4096 game. */
+	private static final double AREA_PER_NODE= 4096.0 * 4096.0 / 750;
+
+	public static void main(String[] args) throws IOException {
+		int threads= Runtime.getRuntime().availableProcessors();
+		int tilePoints= TiledGenerator.DEFAULT_TILE_POINTS;
+		String file= null;
+		int first= 0;
+		while (first < args.length && args[first].startsWith("-")) {
+			if (args[first].equals("-threads"))
+				threads= Integer.parseInt(args[++first]);
+			else if (args[first].equals("-tile"))
+				tilePoints= Integer.parseInt(args[++first]);
+			else if (args[first].equals("-out"))
+				file= args[++first];
+			else
+				throw new IllegalArgumentException("unknown option " + args[first]);
+			++first;
+		}
+		int[] sizes= { 1000000, 10000000 };
+		if (args.length > first) {
+			sizes= new int[args.length - first];
+			for (int i= first; i < args.length; ++i)
+				sizes[i - first]= Integer.parseInt(args[i]);
+		}
+
+		System.out.printf("%10s %10s %8s %10s %10s %12s %12s %10s%n", "nodes",
+			"side", "tiles", "ms", "peak MB", "ns/node", "edges", "file MB");
+		for (int n : sizes) {
+			int side= (int) Math.ceil(Math.sqrt(n * AREA_PER_NODE));
+			TiledGenerator g= new TiledGenerator(0, n, side, side, 0, 5000,
+				tilePoints);
+			long before= BoardGenerationBenchmark.resetHeap();
+			Counter out= new Counter(file == null ? null
+				: new BufferedOutputStream(new FileOutputStream(file), 1 << 20));
+			long start= System.nanoTime();
+			long edges;
+			try {
+				edges= g.write(out, threads);
+			} finally {
+				out.close();
+			}
+			long time= System.nanoTime() - start;
+			long peak= BoardGenerationBenchmark.peakHeap() - before;
+			System.out.printf("%10d %10d %8d %10.1f %10.1f %12.0f %12d %10.1f%n", n,
+				side, g.tileCount(), time / 1e6, peak / 1e6, (double) time / n, edges,
+				out.count / 1e6);
+		}
+	}
+
+	/** An OutputStream that counts the bytes written to it, passing them on
+	 * to another stream if there is one. */
+	private static class Counter extends OutputStream {
+
+		/* The stream written to, or null. */
+		private final OutputStream out;
+
+		/* The number of bytes written so far. */
+		private long count;
+
+		/** Constructor: a Counter passing bytes on to out, if not null. */
+		Counter(OutputStream out) {
+			this.out= out;
+		}
+
+		@Override public void write(int b) throws IOException {
+			++count;
+			if (out != null) out.write(b);
+		}
+
+		@Override public void write(byte[] b, int off, int len)
+			throws IOException {
+			count += len;
+			if (out != null) out.write(b, off, len);
+		}
+
+		@Override public void close() throws IOException {
+			if (out != null) out.close();
+		}
+	}
+}
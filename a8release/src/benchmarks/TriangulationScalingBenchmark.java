@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import generation.DelaunayTriangulation;
+import generation.DelaunayTriangulation.Engine;
+
+/** Measures how the time to triangulate a large point set by divide and
+ * conquer scales with the number of worker threads, against the fastest
+ * sequential engine.
+ *
+ * Usage: TriangulationScalingBenchmark [POINTS ...]
+ * For each POINTS (default: 1000000 4000000), points are drawn uniformly from
+ * a square with the density of a 750-Node game, then triangulated by BRIO on
+ * the calling thread and by DIVIDE_AND_CONQUER in ForkJoinPools of 1, 2, 4,
+ * ... threads, up to the number of available processors. Give the JVM enough
+ * heap (e.g. -Xmx8g) for the largest set. */
+public class TriangulationScalingBenchmark {
+
+	/* Area of the board per point, matching a 750-Node 4096 x 4096 game. */
+	private static final double AREA_PER_POINT= 4096.0 * 4096.0 / 750;
+
+	/* Number of times each configuration runs; the fastest run is reported. */
+	private static final int RUNS= 3;
+
+	public static void main(String[] args) throws InterruptedException,
+		ExecutionException {
+		int[] sizes= { 1000000, 4000000 };
+		if (args.length > 0) {
+			sizes= new int[args.length];
+			for (int i= 0; i < args.length; ++i)
+				sizes[i]= Integer.parseInt(args[i]);
+		}
+		int cores= Runtime.getRuntime().availableProcessors();
+
+		System.out.printf("%10s %18s %8s %10s %10s %8s%n", "points", "engine",
+			"threads", "ms", "ns/point", "speedup");
+		for (int n : sizes) {
+			int side= (int) Math.ceil(Math.sqrt(n * AREA_PER_POINT));
+			long base= time(n, side, Engine.BRIO, null);
+			print(n, Engine.BRIO, 1, base, base);
+
+			for (int threads= 1; ; threads= Math.min(2 * threads, cores)) {
+				ForkJoinPool pool= new ForkJoinPool(threads);
+				try {
+					long t= time(n, side, Engine.DIVIDE_AND_CONQUER, pool);
+					print(n, Engine.DIVIDE_AND_CONQUER, threads, t, base);
+				} finally {
+					pool.shutdown();
+				}
+				if (threads == cores) break;
+			}
+		}
+	}
+
+	/** Return the fastest of RUNS times, in ns, to triangulate n points in a
+	 * side x side square with engine, in pool (on this thread if null). */
+	private static long time(int n, int side, Engine engine, ForkJoinPool pool)
+		throws InterruptedException, ExecutionException {
+		long best= Long.MAX_VALUE;
+		for (int run= 0; run < RUNS; ++run) {
+			Random r= new Random(run);
+			System.gc();
+			long start= System.nanoTime();
+			DelaunayTriangulation dt= pool == null
+				? new DelaunayTriangulation(n, r, side, side, engine)
+				: pool.submit(() -> new DelaunayTriangulation(n, r, side, side,
+					engine)).get();
+			best= Math.min(best, System.nanoTime() - start);
+			if (dt.vertexCount() != n) throw new AssertionError();
+		}
+		return best;
+	}
+
+	/** Print one row of results: n points triangulated by engine on threads
+	 * threads in time ns, where the baseline took base ns. */
+	private static void print(int n, Engine engine, int threads, long time,
+		long base) {
+		System.out.printf("%10d %18s %8d %10.1f %10.0f %8.2f%n", n, engine,
+			threads, time / 1e6, (double) time / n, (double) base / time);
+	}
+}
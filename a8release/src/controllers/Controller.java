@@ -1,5 +1,7 @@
 package controllers;
 
+import models.Board;
+
 /** An instance controls a Game and can access its status. */
 public interface Controller {
 
@@ -27,4 +29,13 @@ public interface Controller {
 
     /** Create (but don't start) a new game with seed s. */
     public void newGame(long s);
+
+    /** Create (but don't start) a new game played on Board b.
+     * Precondition: b was returned by generateBoard and has not been played. */
+    public void newGame(Board b);
+
+    /** Return the Board that a new game with seed s would be played on,
+     * without changing the current game. This may be called from any thread,
+     * so Boards can be generated ahead of time. */
+    public Board generateBoard(long s);
 }
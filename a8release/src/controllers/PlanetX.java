@@ -58,21 +58,30 @@ public class PlanetX implements Controller {
 	/** Initialize the game with seed s and spaceship sp. If this game has already
 	 * been initialized, this overwrites the previous initialization. */
 	protected void init(long s, Spaceship sp) {
+		init(generateBoard(s), sp);
+	}
+
+	/** Initialize the game on Board b with spaceship sp. If this game has
+	 * already been initialized, this overwrites the previous initialization. */
+	protected void init(Board b, Spaceship sp) {
 		// stop the old thread, if it exists
 		if (thread != null)	thread.kill();
 
 		started= false;
 		failed= false;
 
-		seed= s;
+		seed= b.seed();
 		spaceship= sp;
-		Board b= new Board.BoardBuilder().size(WIDTH, HEIGHT).seed(s)
-			.nodeBounds(MIN_NODES, MAX_NODES).gemBounds(MIN_GEMS, MAX_GEMS).build();
 		model= new PlanetXModel(b);
 		thread= new ModelThread();
 		view.init(this, model);
 	}
 
+	@Override public Board generateBoard(long s) {
+		return new Board.BoardBuilder().size(WIDTH, HEIGHT).seed(s)
+			.nodeBounds(MIN_NODES, MAX_NODES).gemBounds(MIN_GEMS, MAX_GEMS).build();
+	}
+
 	@Override public void newGame(String str) {
 		if (str == null) return;
 		try {
@@ -86,6 +95,10 @@ public class PlanetX implements Controller {
 		init(s, ships.get());
 	}
 
+	@Override public void newGame(Board b) {
+		init(b, ships.get());
+	}
+
 	@Override public void reset() {
 		init(seed, ships.get());
 	}
@@ -179,11 +192,14 @@ public class PlanetX implements Controller {
 	 * -c, --cli        Use the CLI (command-line interface) view
 	 * -b, --benchmark  Use a benchmark view, which will give statistics
 	 *                  of your solution when run on multiple seeds
-	 * -q, --quiet      Use a quiet view, which outputs nothing. */
+	 * -q, --quiet      Use a quiet view, which outputs nothing.
+	 * --fps=FPS        Draw FPS frames per second in the GUI view
+	 *                  (default: GUI.DEFAULT_FRAME_RATE) */
 	public static void main(String[] argv) {
 		// parse arguments
 		View view= null;
 		Long seed= null;
+		Integer fps= null;
 		for (int i= 0; i < argv.length; ++i) {
 			try {
 				if (argv[i].equals("-g") || argv[i].equals("--gui")) {
@@ -218,6 +234,12 @@ public class PlanetX implements Controller {
 					} else {
 						view= new BenchmarkView();
 					}
+				} else if (argv[i].startsWith("--fps=")) {
+					fps= Integer.parseInt(argv[i].substring(6));
+					if (fps <= 0) {
+						System.err.println("Error: the frame rate must be positive.");
+						return;
+					}
 				} else if (argv[i].length() > 7
 					&& argv[i].substring(0, 7).equals("--seed=")) {
 					seed = Long.parseLong(argv[i].substring(7));
@@ -234,7 +256,8 @@ public class PlanetX implements Controller {
 					return;
 				}
 			} catch (NumberFormatException e) {
-				System.err.println("Invalid seed \"" + argv[i] + '"');
+				String what= argv[i].startsWith("--fps=") ? "frame rate" : "seed";
+				System.err.println("Invalid " + what + " \"" + argv[i] + '"');
 				return;
 			}
 		}
@@ -243,6 +266,13 @@ public class PlanetX implements Controller {
 
 		// begin the game with the appropriate parameters
 		if (view == null) view = new GUIView();
+		if (fps != null) {
+			if (!(view instanceof GUIView)) {
+				System.err.println("Error: --fps applies only to the GUI view");
+				return;
+			}
+			((GUIView) view).setFrameRate(fps);
+		}
 		new PlanetX(seed, new MySpaceship(), view);
 	}
 }
@@ -20,7 +20,7 @@ public interface RescuePhase {
 	/** Return node Earth Node. You MUST return at this Node to succeed. */
 	public Node earth();
 
-	/** Return the set of all Nodes in the graph. */
+	/** Return the set of all Nodes in the graph, which cannot be modified. */
 	public Set<Node> nodes();
 
 	/** Move the Ship to Node n.
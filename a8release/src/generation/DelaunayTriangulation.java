@@ -1,36 +1,103 @@
 package generation;
 
 import java.awt.Point;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Random;
 import java.util.Set;
 
 /** An instance creates a Delaunay triangulation represented by
- * immutable vertex and edge sets. */
+ * immutable vertex and edge sets.
+ *
+ * The vertices and edges can also be read by index, without creating any
+ * Points or UEdges: vertex i is the i-th vertex iterated by getVertices(), and
+ * edge k is the k-th edge iterated by getEdges(), with its endpoints given as
+ * vertex indices.
+ *
+ * The triangulation can be computed by different engines. All of them add the
+ * same points, number the vertices the same way, and find the same edges
+ * (the triangulation is unique; see Predicates). Only HISTORY_DAG numbers the
+ * edges as Boards always have; the others number them in order of their
+ * endpoints.
+ *
+ * Vertices can be inserted and removed afterwards. Each change updates only
+ * the triangles around the vertex, in a HalfEdgeMesh built from the vertices
+ * when the first change is made, and reports the edges it removed and added
+ * (see Change). An inserted vertex gets the next unused index; a removed one
+ * leaves its index unused. After a change, edges are numbered in order of
+ * their endpoints. */
 public class DelaunayTriangulation {
-	/* The set of Points representing vertices in this triangulation */
-	private Set<Point> vertices;
 
-	/* The set of UEdges representing the final triangulation */
+	/** The algorithms that can compute a triangulation. */
+	public enum Engine {
+		/** Add points in the given order to Triangle objects, locating them by
+		 * descending the history of all Triangles ever created. */
+		HISTORY_DAG,
+
+		/** Add points in the given order to a half-edge mesh stored in
+		 * primitive arrays (HalfEdgeMesh), locating them by walking from the
+		 * previous point. Much smaller than HISTORY_DAG, and fast when
+		 * consecutive points are close together. */
+		HALF_EDGE,
+
+		/** Collect all points first, then add them to a HalfEdgeMesh in a
+		 * biased randomized insertion order: in rounds of doubling size, each
+		 * sorted along a Hilbert curve (SpatialSort), so that every walk is
+		 * short. Near-linear expected time, whatever the order of the points. */
+		BRIO,
+
+		/** Collect all points first, then triangulate them by divide and
+		 * conquer (DivideAndConquer), with the halves of large subproblems
+		 * triangulated in parallel in the ForkJoinPool of the calling thread
+		 * (the common pool if it is not a worker thread). */
+		DIVIDE_AND_CONQUER
+	}
+
+	/* The coordinates of the vertices of this triangulation, by index. */
+	private int[] xs, ys;
+
+	/* The endpoints of the edges of this triangulation, by index. p1s[k] is the
+	 * vertex index of the first (leftmost, then bottom) endpoint of edge k,
+	 * and p2s[k] the index of its second endpoint. */
+	private int[] p1s, p2s;
+
+	/* The number of vertices added to this triangulation so far, including
+	 * any that were removed later. */
+	private int count;
+
+	/* The corners of the triangle bounding all vertices. */
+	private Point[] corners;
+
+	/* The triangulation that changes are made to, null until the first
+	 * change. Vertex i is mesh vertex meshVertex[i] (-1 if it was removed),
+	 * and mesh vertex v is vertex vertexIndex[v] (-1 for the corners of the
+	 * bounding triangle). */
+	private HalfEdgeMesh mesh;
+	private int[] meshVertex, vertexIndex;
+
+	/* The vertex and edge sets, created from the arrays when first needed. */
+	private Set<Point> vertices;
 	private Set<UEdge> edges;
 
 	/** Constructor: a Delaunay Triangulation with n Points, placed using RNG r,
 	 * where the Points are bound by a rectangle with lower-left point (0, 0)
 	 * parallel to the x- and y-axes with dimensions w x h. */
 	public DelaunayTriangulation(int n, Random r, int w, int h) {
-		Iterator<Point> iter= new Iterator<Point>() {
-			@Override public boolean hasNext() {
-				return vertices.size() < n;
-			}
+		this(n, r, w, h, Engine.HISTORY_DAG);
+	}
 
-			@Override public Point next() {
-				return new Point(r.nextInt(w + 1), r.nextInt(h + 1));
-			}
-		};
-		triangulate(iter, new Point(0, 0), new Point(w, h));
+	/** Constructor: a Delaunay Triangulation with n Points, placed using RNG r,
+	 * where the Points are bound by a rectangle with lower-left point (0, 0)
+	 * parallel to the x- and y-axes with dimensions w x h, computed by
+	 * engine. */
+	public DelaunayTriangulation(int n, Random r, int w, int h, Engine engine) {
+		int[][] pt= RandomPoints.draw(n, r, w, h);
+		count= n;
+		triangulate(pt[0], pt[1], outerTriangle(new Point(0, 0), new Point(w, h)),
+			engine);
 	}
 
 	/** Constructor: a Delaunay triangulation built from the Points
@@ -46,67 +113,570 @@ public class DelaunayTriangulation {
 			if (p.y < b) b= p.y;
 		}
 
-		triangulate(pts.iterator(), new Point(l, b), new Point(r, t));
+		triangulate(pts.iterator(), new Point(l, b), new Point(r, t),
+			Engine.HISTORY_DAG, pts.size());
 	}
 
 	/** Constructor: a Delaunay triangulation built from Points in iterator pts
 	 * bound in the axis-aligned rectangle with bottom-left coordinate bl and
 	 * top-right coordinate tr. Points outside of this area are omitted. */
 	public DelaunayTriangulation(Iterator<Point> pts, Point bl, Point tr) {
-		triangulate(pts, bl, tr);
+		this(pts, bl, tr, Engine.HISTORY_DAG);
 	}
 
-	/** Use iterator pts to make a Delaunay triangulation within the
+	/** Constructor: a Delaunay triangulation built by engine from Points in
+	 * iterator pts bound in the axis-aligned rectangle with bottom-left
+	 * coordinate bl and top-right coordinate tr. Points outside of this area
+	 * are omitted. */
+	public DelaunayTriangulation(Iterator<Point> pts, Point bl, Point tr,
+		Engine engine) {
+		triangulate(pts, bl, tr, engine, 0);
+	}
+
+	/** Constructor: a Delaunay triangulation of the n points (xs[i], ys[i]),
+	 * which are distinct and lie in the axis-aligned rectangle with
+	 * bottom-left coordinate bl and top-right coordinate tr; point i gets
+	 * vertex index i. Nothing is computed until the triangulation is first
+	 * used, and then it is built as if it were about to be changed. */
+	public DelaunayTriangulation(int[] xs, int[] ys, int n, Point bl, Point tr) {
+		this.xs= Arrays.copyOf(xs, n);
+		this.ys= Arrays.copyOf(ys, n);
+		count= n;
+		corners= outerTriangle(bl, tr);
+	}
+
+	/** Use engine and iterator pts to make a Delaunay triangulation within the
 	 * axis-aligned rectangle with bottom-left coordinate bl and top-right
-	 * coordinate tr. Points outside this area are omitted. */
-	private void triangulate(Iterator<Point> pts, Point bl, Point tr) {
-		vertices= new HashSet<Point>();
+	 * coordinate tr, expecting about n points. Points outside this area are
+	 * omitted. */
+	private void triangulate(Iterator<Point> pts, Point bl, Point tr,
+		Engine engine, int n) {
+		Point[] c= outerTriangle(bl, tr);
+		int[][] pt= collect(pts, c, n);
+		triangulate(pt[0], pt[1], c, engine);
+	}
+
+	/** Use engine to make a Delaunay triangulation of the count points
+	 * (ix[i], iy[i]), numbered in that order, which are distinct and lie in
+	 * the triangle with corners c. */
+	private void triangulate(int[] ix, int[] iy, Point[] c, Engine engine) {
+		corners= c;
+		switch (engine) {
+			case HALF_EDGE: triangulateMesh(ix, iy, c); break;
+			case BRIO: triangulateSorted(ix, iy, c); break;
+			case DIVIDE_AND_CONQUER: triangulateParallel(ix, iy, c); break;
+			default: triangulateHistory(ix, iy, c); break;
+		}
+	}
 
-		/* Triangulation set: set of all final Triangles */
-		HashSet<Triangle> triangles= new HashSet<Triangle>();
+	/** Triangulate the count points (ix[i], iy[i]) in the triangle with
+	 * corners c, using Triangles and their history. */
+	private void triangulateHistory(int[] ix, int[] iy, Point[] c) {
+		/* Triangulation set: set of all final Triangles. Triangles use identity
+		 * hash codes, so this must iterate in insertion order for the edge
+		 * order (and hence the Board) to depend only on the input Points. */
+		Set<Triangle> triangles= new LinkedHashSet<Triangle>();
 
 		/* set up initial Triangle - these TEMPORARY points allow the
 		 * triangulation to span the entire graph */
-		int OUTER_BOUND= Math.max(tr.x - bl.x, tr.y - bl.y);
-		Point p1= new Point(-OUTER_BOUND + bl.x, -OUTER_BOUND + bl.y);
-		Point p2= new Point(-OUTER_BOUND + bl.x, 3 * OUTER_BOUND + bl.y);
-		Point p3= new Point(3 * OUTER_BOUND + bl.x, -OUTER_BOUND + bl.y);
-		Triangle outer= new Triangle(p1, p2, p3);
+		Triangle outer= new Triangle(c[0], c[1], c[2]);
 		triangles.add(outer);
 
-		// add Points until none are left
+		// add the Points, numbering them in insertion order
+		for (int i= 0; i != count; ++i)
+			outer.addPoint(new Vertex(ix[i], iy[i], i), triangles);
+
+		// remove the bounding Triangle from the triangulation set
+		triangles.remove(outer);
+
+		int[] index= numberVertices(ix, iy);
+
+		// collect the edges in the order a LinkedHashSet of UEdges would first
+		// find them, keyed by the pair of their endpoints' numbers (the corners
+		// of the bounding Triangle are numbered count .. count + 2), and keep
+		// the hash codes of those that do not touch the bounding Triangle
+		// (a planar graph on count points has fewer than 3 count edges)
+		PointSet seen= new PointSet(3 * count + 3);
+		int[] e1= new int[3 * count];
+		int[] e2= new int[3 * count];
+		int[] hashes= new int[3 * count];
+		int ne= 0;
+		for (Triangle t : triangles) {
+			for (int i= 0; i != 3; ++i) {
+				Point p= t.vertex(i), q= t.vertex((i + 1) % 3);
+				int u= number(p, c), v= number(q, c);
+				if (!seen.add(Math.min(u, v), Math.max(u, v)) || u >= count
+					|| v >= count)
+					continue;
+				if (q.x < p.x || q.x == p.x && q.y < p.y) {
+					Point r= p;
+					p= q;
+					q= r;
+					int w= u;
+					u= v;
+					v= w;
+				}
+				e1[ne]= index[u];
+				e2[ne]= index[v];
+				hashes[ne]= 31 * (31 + pointHash(p.x, p.y)) + pointHash(q.x, q.y);
+				++ne;
+			}
+		}
+
+		// number the edges in the order a HashSet of all of them iterates
+		int[] order= hashSetOrder(hashes, ne, seen.size());
+		p1s= new int[ne];
+		p2s= new int[ne];
+		for (int k= 0; k != ne; ++k) {
+			p1s[k]= e1[order[k]];
+			p2s[k]= e2[order[k]];
+		}
+	}
+
+	/** Triangulate the count points (ix[i], iy[i]) in the triangle with
+	 * corners c, adding them in order to a HalfEdgeMesh. */
+	private void triangulateMesh(int[] ix, int[] iy, Point[] c) {
+		HalfEdgeMesh mesh= new HalfEdgeMesh(c[0].x, c[0].y, c[1].x, c[1].y,
+			c[2].x, c[2].y, count);
+		for (int i= 0; i != count; ++i)
+			mesh.insert(ix[i], iy[i]);
+
+		// mesh vertex v > 2 is the point with insertion index v - 3
+		int[] index= numberVertices(ix, iy);
+		int[] vertexOf= new int[count + 3];
+		for (int i= 0; i != count; ++i)
+			vertexOf[i + 3]= index[i];
+		setEdges(mesh.edges(), vertexOf);
+	}
+
+	/** Triangulate the count points (ix[i], iy[i]) in the triangle with
+	 * corners c, adding them to a HalfEdgeMesh in the order SpatialSort.brio
+	 * gives. */
+	private void triangulateSorted(int[] ix, int[] iy, Point[] c) {
+		// mesh vertex j + 3 is the point with insertion index order[j]
+		int[] order= SpatialSort.brio(ix, iy, count);
+		HalfEdgeMesh mesh= new HalfEdgeMesh(c[0].x, c[0].y, c[1].x, c[1].y,
+			c[2].x, c[2].y, count);
+		for (int i : order)
+			mesh.insert(ix[i], iy[i]);
+
+		int[] index= numberVertices(ix, iy);
+		int[] vertexOf= new int[count + 3];
+		for (int j= 0; j != count; ++j)
+			vertexOf[j + 3]= index[order[j]];
+		setEdges(mesh.edges(), vertexOf);
+	}
+
+	/** Triangulate the count points (ix[i], iy[i]) in the triangle with
+	 * corners c, using DivideAndConquer. */
+	private void triangulateParallel(int[] ix, int[] iy, Point[] c) {
+		// the corners of the bounding triangle are points count .. count + 2
+		int[] px= Arrays.copyOf(ix, count + 3);
+		int[] py= Arrays.copyOf(iy, count + 3);
+		for (int i= 0; i != 3; ++i) {
+			px[count + i]= c[i].x;
+			py[count + i]= c[i].y;
+		}
+		int[] es= DivideAndConquer.edges(px, py, count + 3, count);
+
+		int[] index= numberVertices(ix, iy);
+		setEdges(es, index);
+	}
+
+	/** Return the distinct points of iterator pts that lie in the triangle
+	 * with corners c, other than its corners, in the order pts gives them,
+	 * as { xs, ys }: point i is (xs[i], ys[i]). Set count to the number of
+	 * points; the arrays may be longer. n is the expected number of points. */
+	private int[][] collect(Iterator<Point> pts, Point[] c, int n) {
+		int side= Predicates.orient(c[0], c[1], c[2]);
+		PointSet seen= new PointSet(n);
+		for (Point corner : c)
+			seen.add(corner.x, corner.y);
+		int[] ix= new int[Math.max(n, 16)];
+		int[] iy= new int[ix.length];
 		while (pts.hasNext()) {
 			Point p= pts.next();
-			if (outer.addPoint(p, triangles))
-				vertices.add(p);
+			if (Predicates.orient(c[0], c[1], p) * side < 0
+				|| Predicates.orient(c[1], c[2], p) * side < 0
+				|| Predicates.orient(c[2], c[0], p) * side < 0
+				|| !seen.add(p.x, p.y))
+				continue;
+			if (count == ix.length) {
+				ix= Arrays.copyOf(ix, 2 * count);
+				iy= Arrays.copyOf(iy, 2 * count);
+			}
+			ix[count]= p.x;
+			iy[count]= p.y;
+			++count;
 		}
+		return new int[][] { ix, iy };
+	}
 
-		// remove the bounding Triangle from the triangulation set
-		triangles.remove(outer);
+	/** Return the corners of a triangle that contains the axis-aligned
+	 * rectangle with bottom-left coordinate bl and top-right coordinate tr.
+	 * Every engine must use the same triangle, since its corners can take
+	 * part in the triangulation near its boundary. */
+	static Point[] outerTriangle(Point bl, Point tr) {
+		int bound= Math.max(tr.x - bl.x, tr.y - bl.y);
+		return new Point[] {
+			new Point(-bound + bl.x, -bound + bl.y),
+			new Point(-bound + bl.x, 3 * bound + bl.y),
+			new Point(3 * bound + bl.x, -bound + bl.y) };
+	}
+
+	/** Set the vertices of this triangulation to the points (ix[i], iy[i]),
+	 * numbered in the order a HashSet of them iterates, and return the vertex
+	 * index of each point: result[i] is the vertex index of point i. */
+	private int[] numberVertices(int[] ix, int[] iy) {
+		int[] hashes= new int[count];
+		for (int i= 0; i != count; ++i)
+			hashes[i]= pointHash(ix[i], iy[i]);
+		int[] order= hashSetOrder(hashes, count, count);
+		int[] index= new int[count];
+		xs= new int[count];
+		ys= new int[count];
+		for (int i= 0; i != count; ++i) {
+			index[order[i]]= i;
+			xs[i]= ix[order[i]];
+			ys[i]= iy[order[i]];
+		}
+		return index;
+	}
+
+	/** Set the edges of this triangulation to the edges given by pairs of
+	 * mesh vertex numbers in es (edge k connects mesh vertices es[2k] and
+	 * es[2k+1]), where mesh vertex v has vertex index vertexOf[v]. Number them
+	 * in order of their first (leftmost, then bottom) endpoint, then their
+	 * second endpoint. */
+	private void setEdges(int[] es, int[] vertexOf) {
+		int ne= es.length / 2;
+		long[] keys= new long[ne];
+		for (int k= 0; k != ne; ++k) {
+			int u= vertexOf[es[2 * k]];
+			int v= vertexOf[es[2 * k + 1]];
+			if (xs[v] < xs[u] || xs[v] == xs[u] && ys[v] < ys[u]) {
+				int t= u;
+				u= v;
+				v= t;
+			}
+			keys[k]= (long) u << 32 | v;
+		}
+		Arrays.sort(keys);
+		p1s= new int[ne];
+		p2s= new int[ne];
+		for (int k= 0; k != ne; ++k) {
+			p1s[k]= (int) (keys[k] >>> 32);
+			p2s[k]= (int) keys[k];
+		}
+	}
+
+	/** Insert a vertex at (x, y), keeping this triangulation Delaunay, and
+	 * return the change, whose vertex is the new vertex's index. Start looking
+	 * for the point at vertex near, if it is a vertex: if it is close to
+	 * (x, y), the change takes expected constant time. Return null, changing
+	 * nothing, if (x, y) is already a vertex or lies outside the triangle
+	 * bounding this triangulation. */
+	public Change insert(int x, int y, int near) {
+		HalfEdgeMesh m= mesh();
+		if (!(isVertex(near) ? m.insert(x, y, meshVertex[near]) : m.insert(x, y)))
+			return null;
+
+		int v= m.vertexCount() - 1;
+		if (count == xs.length) {
+			xs= Arrays.copyOf(xs, 2 * count + 16);
+			ys= Arrays.copyOf(ys, xs.length);
+			meshVertex= Arrays.copyOf(meshVertex, xs.length);
+		}
+		if (v == vertexIndex.length)
+			vertexIndex= Arrays.copyOf(vertexIndex, 2 * v);
+		xs[count]= x;
+		ys[count]= y;
+		meshVertex[count]= v;
+		vertexIndex[v]= count;
+		return change(count++);
+	}
+
+	/** Remove the vertex with index i, keeping this triangulation Delaunay,
+	 * and return the change. This takes time proportional to the square of
+	 * the number of its neighbors (expected constant time).
+	 * Throw an IllegalArgumentException if i is not a vertex. */
+	public Change remove(int i) {
+		if (!isVertex(i))
+			throw new IllegalArgumentException("no vertex " + i);
+		mesh().remove(meshVertex[i]);
+		meshVertex[i]= -1;
+		return change(i);
+	}
 
-		edges= allUndirectedEdges(triangles);
+	/** Return the indices of the vertices adjacent to vertex i, in
+	 * counterclockwise order, with -1 for each corner of the triangle
+	 * bounding this triangulation.
+	 * Throw an IllegalArgumentException if i is not a vertex. */
+	public int[] neighbors(int i) {
+		if (!isVertex(i))
+			throw new IllegalArgumentException("no vertex " + i);
+		int[] ns= mesh().neighbors(meshVertex[i]);
+		for (int k= 0; k != ns.length; ++k)
+			ns[k]= vertexIndex[ns[k]];
+		return ns;
+	}
 
-		// remove any edges to the bounding Triangle
-		edges.removeIf(
-			(UEdge e) -> e.contains(p1) || e.contains(p2) || e.contains(p3));
+	/** Return true iff i is the index of a vertex of this triangulation
+	 * (one that has not been removed). */
+	public boolean isVertex(int i) {
+		return i >= 0 && i < count && (meshVertex == null || meshVertex[i] >= 0);
+	}
+
+	/** Return the mesh that changes are made to, building it from the
+	 * vertices if there is none yet. */
+	private HalfEdgeMesh mesh() {
+		if (mesh == null) {
+			Point[] c= corners;
+			HalfEdgeMesh m= new HalfEdgeMesh(c[0].x, c[0].y, c[1].x, c[1].y,
+				c[2].x, c[2].y, count);
+			meshVertex= new int[xs.length];
+			vertexIndex= new int[count + 3];
+			vertexIndex[0]= vertexIndex[1]= vertexIndex[2]= -1;
+			int[] order= SpatialSort.brio(xs, ys, count);
+			for (int j= 0; j != count; ++j) {
+				m.insert(xs[order[j]], ys[order[j]]);
+				meshVertex[order[j]]= j + 3;
+				vertexIndex[j + 3]= order[j];
+			}
+			m.setJournaling(true);
+			mesh= m;
+		}
+		return mesh;
+	}
+
+	/** Return the change the mesh just made to vertex i, and forget the
+	 * edge numbering and the vertex and edge sets, which it invalidated. */
+	private Change change(int i) {
+		p1s= p2s= null;
+		vertices= null;
+		edges= null;
+		return new Change(i, toIndices(mesh.removedEdges()),
+			toIndices(mesh.addedEdges()));
+	}
+
+	/** Return the pairs of mesh vertices es as pairs of vertex indices,
+	 * leaving out pairs with a corner of the bounding triangle. */
+	private int[] toIndices(int[] es) {
+		int n= 0;
+		for (int k= 0; k < es.length; k += 2) {
+			int u= vertexIndex[es[k]], v= vertexIndex[es[k + 1]];
+			if (u >= 0 && v >= 0) {
+				es[n++]= u;
+				es[n++]= v;
+			}
+		}
+		return Arrays.copyOf(es, n);
+	}
+
+	/** Number the edges again from the mesh, building it if need be, if a
+	 * change made the numbering invalid or the edges were never computed. */
+	private void ensureEdges() {
+		if (p1s == null) {
+			HalfEdgeMesh m= mesh(); // sets vertexIndex
+			setEdges(m.edges(), vertexIndex);
+		}
 	}
 
 	/** Return this triangulation's immutable vertex set. */
 	public Set<Point> getVertices() {
-		return Collections.unmodifiableSet(vertices);
+		if (vertices == null) {
+			Point[] ps= points();
+			Set<Point> vs= new LinkedHashSet<Point>(2 * ps.length);
+			for (Point p : ps) {
+				if (p != null) vs.add(p);
+			}
+			vertices= Collections.unmodifiableSet(vs);
+		}
+		return vertices;
 	}
 
 	/** Return this triangulation's immutable edge set. */
 	public Set<UEdge> getEdges() {
-		return Collections.unmodifiableSet(edges);
+		if (edges == null) {
+			ensureEdges();
+			Point[] ps= points();
+			Set<UEdge> es= new LinkedHashSet<UEdge>(2 * p1s.length);
+			for (int k= 0; k != p1s.length; ++k)
+				es.add(new UEdge(ps[p1s[k]], ps[p2s[k]]));
+			edges= Collections.unmodifiableSet(es);
+		}
+		return edges;
 	}
 
-	/** Return a set of all unique edges in the triangulation set ts.
-	 * Edges are represented as UEdges to avoid redundancy. */
-	private static Set<UEdge> allUndirectedEdges(HashSet<Triangle> ts) {
-		HashSet<UEdge> edges= new HashSet<UEdge>();
-		for (Triangle t : ts)
-			t.addUEdgesToSet(edges);
-		return edges;
+	/** Return the vertices of this triangulation as Points, by index, with
+	 * null for removed vertices. The edges of getEdges() must share these
+	 * Points, since UEdges compare their endpoints by identity. */
+	private Point[] points() {
+		Point[] ps= new Point[count];
+		if (vertices != null) {
+			int i= 0;
+			for (Point p : vertices) {
+				while (!isVertex(i))
+					++i;
+				ps[i++]= p;
+			}
+			return ps;
+		}
+		for (int i= 0; i != count; ++i) {
+			if (isVertex(i)) ps[i]= new Point(xs[i], ys[i]);
+		}
+		return ps;
+	}
+
+	/** Return the number of vertex indices used so far: the number of
+	 * vertices of this triangulation, plus the number removed. */
+	public int vertexCount() {
+		return count;
+	}
+
+	/** Return the x coordinate of the vertex with index i. */
+	public int vertexX(int i) {
+		return xs[i];
+	}
+
+	/** Return the y coordinate of the vertex with index i. */
+	public int vertexY(int i) {
+		return ys[i];
+	}
+
+	/** Return the number of edges of this triangulation. */
+	public int edgeCount() {
+		ensureEdges();
+		return p1s.length;
+	}
+
+	/** Return the vertex index of the first (leftmost, then bottom)
+	 * endpoint of the edge with index k. */
+	public int edgeP1(int k) {
+		ensureEdges();
+		return p1s[k];
+	}
+
+	/** Return the vertex index of the second (rightmost, then top)
+	 * endpoint of the edge with index k. */
+	public int edgeP2(int k) {
+		ensureEdges();
+		return p2s[k];
+	}
+
+	/** Return the number of Point p of a triangulation whose bounding
+	 * Triangle has corners c: its insertion index if it is a Vertex, and
+	 * count + k if it is corner c[k]. */
+	private int number(Point p, Point[] c) {
+		if (p instanceof Vertex) return ((Vertex) p).index;
+		return p == c[0] ? count : p == c[1] ? count + 1 : count + 2;
+	}
+
+	/** Return the hash code of a Point at (x, y), i.e. the value of
+	 * new Point(x, y).hashCode(). */
+	private static int pointHash(int x, int y) {
+		long bits= Double.doubleToLongBits(x);
+		bits ^= Double.doubleToLongBits(y) * 31;
+		return (int) bits ^ (int) (bits >> 32);
+	}
+
+	/** Return the order in which a java.util.HashSet iterates the first n of
+	 * the elements with the given hash codes, if they are added in index order
+	 * to a set that holds size elements once it is complete: the i-th element
+	 * iterated is element result[i].
+	 *
+	 * Boards number their Nodes in the order in which this triangulation's
+	 * sets used to iterate, so existing seeds keep producing the same Boards.
+	 * This computes that order directly: buckets in table order, elements of a
+	 * bucket in insertion order. It does not rely on identity hash codes
+	 * (which a HashSet does for large, non-Comparable buckets). */
+	private static int[] hashSetOrder(int[] hashes, int n, int size) {
+		int capacity= 16; // HashMap's default table size and load factor
+		while (size > capacity / 4 * 3)
+			capacity <<= 1;
+
+		// stable counting sort of the elements by bucket
+		int[] start= new int[capacity + 1];
+		int[] bucket= new int[n];
+		for (int i= 0; i != n; ++i) {
+			int h= hashes[i];
+			bucket[i]= (h ^ (h >>> 16)) & (capacity - 1);
+			++start[bucket[i] + 1];
+		}
+		for (int b= 0; b != capacity; ++b)
+			start[b + 1] += start[b];
+		int[] order= new int[n];
+		for (int i= 0; i != n; ++i)
+			order[start[bucket[i]]++]= i;
+		return order;
+	}
+
+	/** An instance describes one insertion or removal of a vertex: the index
+	 * of that vertex, and the edges that it removed from the triangulation and
+	 * added to it, each given by the indices of its endpoints in no particular
+	 * order. Edges to the corners of the bounding triangle are left out. */
+	public static final class Change {
+
+		/* The index of the vertex inserted or removed. */
+		private final int vertex;
+
+		/* The removed and added edges: edge k joins vertices es[2k], es[2k+1]. */
+		private final int[] removed, added;
+
+		/** Constructor: a change to vertex with the given edges. */
+		private Change(int vertex, int[] removed, int[] added) {
+			this.vertex= vertex;
+			this.removed= removed;
+			this.added= added;
+		}
+
+		/** Return the index of the vertex inserted or removed. */
+		public int vertex() {
+			return vertex;
+		}
+
+		/** Return the number of edges removed. */
+		public int removedCount() {
+			return removed.length / 2;
+		}
+
+		/** Return one endpoint of the k-th edge removed. */
+		public int removedP1(int k) {
+			return removed[2 * k];
+		}
+
+		/** Return the other endpoint of the k-th edge removed. */
+		public int removedP2(int k) {
+			return removed[2 * k + 1];
+		}
+
+		/** Return the number of edges added. */
+		public int addedCount() {
+			return added.length / 2;
+		}
+
+		/** Return one endpoint of the k-th edge added. */
+		public int addedP1(int k) {
+			return added[2 * k];
+		}
+
+		/** Return the other endpoint of the k-th edge added. */
+		public int addedP2(int k) {
+			return added[2 * k + 1];
+		}
+	}
+
+	/** An instance is a Point added to a triangulation, which remembers its
+	 * insertion index so edges can be numbered without hashing Points. */
+	@SuppressWarnings("serial")
+	private static class Vertex extends Point {
+		/* The number of Points added to the triangulation before this one. */
+		private final int index;
+
+		/** Constructor: the index-th Point added, at (x, y). */
+		Vertex(int x, int y, int index) {
+			super(x, y);
+			this.index= index;
+		}
 	}
 }
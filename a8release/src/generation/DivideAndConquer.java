@@ -0,0 +1,332 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/** Guibas and Stolfi's divide-and-conquer Delaunay triangulation, with the
+ * two halves of each large enough subproblem triangulated in parallel.
+ *
+ * The points are sorted by x, then y, and the triangulation of each range of
+ * them is kept as edges in primitive arrays: edge e consists of the directed
+ * half-edges 2e and 2e+1 running in opposite directions, and onext[q] and
+ * oprev[q] are the next half-edges counterclockwise and clockwise around the
+ * origin of half-edge q. The range [lo, hi) of points owns the edge slots
+ * [3 lo, 3 hi), more than a planar graph on its points ever needs at once, so
+ * the two halves of a range never touch the same slots and need no locking.
+ * Slots freed by deleted edges are kept on a free list and reused.
+ *
+ * Predicates.inCircle breaks ties by simulation of simplicity, so the result
+ * is the same triangulation that incremental insertion gives. */
+final class DivideAndConquer {
+
+	/* Ranges of at most this many points are triangulated sequentially. */
+	private static final int SEQUENTIAL= 1 << 13;
+
+	/* The coordinates of the points, sorted by x, then y. */
+	private final int[] px, py;
+
+	/* The point at the origin of each half-edge; -1 if its edge is unused. */
+	private final int[] org;
+
+	/* The next half-edges counterclockwise and clockwise around the origin of
+	 * each half-edge. */
+	private final int[] onext, oprev;
+
+	/* The next free edge slot after each free slot, or -1. */
+	private final int[] nextFree;
+
+	/** Constructor: an instance to triangulate the n points whose packed
+	 * (x, y) keys (see key) are sorted in keys. */
+	private DivideAndConquer(long[] keys, int n) {
+		px= new int[n];
+		py= new int[n];
+		for (int i= 0; i != n; ++i) {
+			px[i]= (int) (keys[i] >> 32);
+			py[i]= (int) keys[i] ^ Integer.MIN_VALUE;
+		}
+		org= new int[6 * n];
+		Arrays.fill(org, -1);
+		onext= new int[6 * n];
+		oprev= new int[6 * n];
+		nextFree= new int[3 * n];
+	}
+
+	/** Return the edges of the Delaunay triangulation of the n points
+	 * (xs[i], ys[i]) that join two of the first keep points, as pairs of point
+	 * numbers: edge k joins points result[2k] and result[2k+1].
+	 * Subproblems run in the ForkJoinPool of the calling thread if it is a
+	 * worker thread, and otherwise in the common pool.
+	 * Precondition: n >= 2, the points are distinct, and not all of them lie
+	 * on one line. */
+	static int[] edges(int[] xs, int[] ys, int n, int keep) {
+		long[] keys= new long[n];
+		for (int i= 0; i != n; ++i)
+			keys[i]= key(xs[i], ys[i]);
+		Arrays.parallelSort(keys);
+
+		DivideAndConquer dc= new DivideAndConquer(keys, n);
+		new Task(dc, 0, n).invoke();
+
+		// map the sorted positions back to point numbers
+		int[] point= new int[n];
+		for (int i= 0; i != n; ++i)
+			point[Arrays.binarySearch(keys, key(xs[i], ys[i]))]= i;
+
+		int[] es= new int[6 * n];
+		int ne= 0;
+		for (int q= 0; q < dc.org.length; q += 2) {
+			if (dc.org[q] < 0) continue;
+			int u= point[dc.org[q]], v= point[dc.org[q + 1]];
+			if (u < keep && v < keep) {
+				es[ne++]= u;
+				es[ne++]= v;
+			}
+		}
+		return Arrays.copyOf(es, ne);
+	}
+
+	/** Return a key for point (x, y) such that keys compare (as longs) like
+	 * points ordered by x, then y. */
+	private static long key(int x, int y) {
+		return (long) x << 32 | (y ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+	}
+
+	/** Return the destination of half-edge q. */
+	private int dest(int q) {
+		return org[q ^ 1];
+	}
+
+	/** Return the next half-edge counterclockwise around the left face of q. */
+	private int lnext(int q) {
+		return oprev[q ^ 1];
+	}
+
+	/** Return the next half-edge clockwise around the right face of q. */
+	private int rprev(int q) {
+		return onext[q ^ 1];
+	}
+
+	/** Exchange the rings of half-edges around the origins of a and b: join
+	 * them if they are different, split them if they are the same. */
+	private void splice(int a, int b) {
+		int an= onext[a], bn= onext[b];
+		onext[a]= bn;
+		onext[b]= an;
+		oprev[bn]= a;
+		oprev[an]= b;
+	}
+
+	/** Return 1 if points a, b, c turn counterclockwise, -1 if they turn
+	 * clockwise, and 0 if they are collinear. */
+	private int orient(int a, int b, int c) {
+		return Predicates.orient(px[a], py[a], px[b], py[b], px[c], py[c]);
+	}
+
+	/** Return true iff point d lies inside the circle through points a, b, c.
+	 * Precondition: a, b, c turn counterclockwise; a, b, c, d are distinct. */
+	private boolean inCircle(int a, int b, int c, int d) {
+		return Predicates.inCircle(px[a], py[a], px[b], py[b], px[c], py[c],
+			px[d], py[d]) > 0;
+	}
+
+	/** Return true iff point p lies to the right of half-edge q. */
+	private boolean rightOf(int p, int q) {
+		return orient(p, dest(q), org[q]) > 0;
+	}
+
+	/** Return true iff point p lies to the left of half-edge q. */
+	private boolean leftOf(int p, int q) {
+		return orient(p, org[q], dest(q)) > 0;
+	}
+
+	/** The triangulation of a range of points, which also holds the free list
+	 * of that range's edge slots. Ranges larger than SEQUENTIAL are split,
+	 * and their halves triangulated in parallel. */
+	@SuppressWarnings("serial")
+	private static final class Task extends RecursiveAction {
+
+		/* The arrays this Task works on. */
+		private final DivideAndConquer dc;
+
+		/* The range of points to triangulate. */
+		private final int lo, hi;
+
+		/* When done: the counterclockwise hull half-edge leaving the leftmost
+		 * point, and the clockwise hull half-edge leaving the rightmost point. */
+		private int left, right;
+
+		/* The first and last free edge slot of this range, or -1. */
+		private int head= -1, tail= -1;
+
+		/** Constructor: a Task to triangulate points [lo, hi) of dc. */
+		Task(DivideAndConquer dc, int lo, int hi) {
+			this.dc= dc;
+			this.lo= lo;
+			this.hi= hi;
+		}
+
+		@Override protected void compute() {
+			if (hi - lo <= SEQUENTIAL) {
+				build(lo, hi);
+				return;
+			}
+			int mid= (lo + hi) >>> 1;
+			Task l= new Task(dc, lo, mid), r= new Task(dc, mid, hi);
+			invokeAll(l, r);
+			head= l.head;
+			tail= l.tail;
+			append(r.head, r.tail);
+			merge(l.left, l.right, r.left, r.right);
+		}
+
+		/** Triangulate points [from, to) and set left, right, head, and tail
+		 * accordingly. Precondition: to - from >= 2. */
+		private void build(int from, int to) {
+			if (to - from <= 3) {
+				leaf(from, to);
+				return;
+			}
+			int mid= (from + to) >>> 1;
+			build(from, mid);
+			int ldo= left, ldi= right, h= head, t= tail;
+			build(mid, to);
+			int rdi= left, rdo= right;
+			int rh= head, rt= tail;
+			head= h;
+			tail= t;
+			append(rh, rt);
+			merge(ldo, ldi, rdi, rdo);
+		}
+
+		/** Triangulate the two or three points [from, to), making the slots
+		 * of this range that are not used free. */
+		private void leaf(int from, int to) {
+			head= tail= -1;
+			for (int e= 3 * to - 1; e >= 3 * from; --e)
+				free(e);
+
+			int a= makeEdge(from, from + 1);
+			if (to - from == 2) {
+				left= a;
+				right= a ^ 1;
+				return;
+			}
+			int b= makeEdge(from + 1, from + 2);
+			dc.splice(a ^ 1, b);
+			int o= dc.orient(from, from + 1, from + 2);
+			if (o > 0) {
+				connect(b, a);
+				left= a;
+				right= b ^ 1;
+			} else if (o < 0) {
+				int c= connect(b, a);
+				left= c ^ 1;
+				right= c;
+			} else {
+				left= a;
+				right= b ^ 1;
+			}
+		}
+
+		/** Merge the triangulations of two adjacent ranges, the left one with
+		 * hull half-edges ldo and ldi, the right one with rdi and rdo (see
+		 * left and right), and set left and right accordingly. */
+		private void merge(int ldo, int ldi, int rdi, int rdo) {
+			DivideAndConquer d= dc;
+
+			// find the lower common tangent of the two hulls
+			while (true) {
+				if (d.leftOf(d.org[rdi], ldi)) ldi= d.lnext(ldi);
+				else if (d.rightOf(d.org[ldi], rdi)) rdi= d.rprev(rdi);
+				else break;
+			}
+
+			int basel= connect(rdi ^ 1, ldi);
+			if (d.org[ldi] == d.org[ldo]) ldo= basel ^ 1;
+			if (d.org[rdi] == d.org[rdo]) rdo= basel;
+
+			// add cross edges from the bottom up, deleting the edges they cross
+			while (true) {
+				int lcand= d.onext[basel ^ 1];
+				boolean lvalid= d.rightOf(d.dest(lcand), basel);
+				if (lvalid) {
+					while (d.onext[lcand] != (basel ^ 1) && d.inCircle(d.dest(basel),
+						d.org[basel], d.dest(lcand), d.dest(d.onext[lcand]))) {
+						int t= d.onext[lcand];
+						deleteEdge(lcand);
+						lcand= t;
+					}
+				}
+
+				int rcand= d.oprev[basel];
+				boolean rvalid= d.rightOf(d.dest(rcand), basel);
+				if (rvalid) {
+					while (d.oprev[rcand] != basel && d.inCircle(d.dest(basel),
+						d.org[basel], d.dest(rcand), d.dest(d.oprev[rcand]))) {
+						int t= d.oprev[rcand];
+						deleteEdge(rcand);
+						rcand= t;
+					}
+				}
+
+				if (!lvalid && !rvalid) break;
+				if (!lvalid || rvalid && d.inCircle(d.dest(lcand), d.org[lcand],
+					d.org[rcand], d.dest(rcand)))
+					basel= connect(rcand, basel ^ 1);
+				else
+					basel= connect(basel ^ 1, lcand ^ 1);
+			}
+
+			left= ldo;
+			right= rdo;
+		}
+
+		/** Add a new edge from point a to point b, not connected to any other
+		 * edge, and return its half-edge from a to b. */
+		private int makeEdge(int a, int b) {
+			int e= head;
+			head= dc.nextFree[e];
+			if (head < 0) tail= -1;
+
+			int q= 2 * e;
+			dc.org[q]= a;
+			dc.org[q + 1]= b;
+			dc.onext[q]= dc.oprev[q]= q;
+			dc.onext[q + 1]= dc.oprev[q + 1]= q + 1;
+			return q;
+		}
+
+		/** Add an edge from the destination of half-edge a to the origin of
+		 * half-edge b, so that all three have the same left face, and return
+		 * its half-edge leaving a's destination. */
+		private int connect(int a, int b) {
+			int q= makeEdge(dc.dest(a), dc.org[b]);
+			dc.splice(q, dc.lnext(a));
+			dc.splice(q ^ 1, b);
+			return q;
+		}
+
+		/** Remove the edge of half-edge q and free its slot. */
+		private void deleteEdge(int q) {
+			dc.splice(q, dc.oprev[q]);
+			dc.splice(q ^ 1, dc.oprev[q ^ 1]);
+			dc.org[q]= dc.org[q ^ 1]= -1;
+			free(q >> 1);
+		}
+
+		/** Add edge slot e to the front of the free list. */
+		private void free(int e) {
+			dc.nextFree[e]= head;
+			head= e;
+			if (tail < 0) tail= e;
+		}
+
+		/** Append the free list from h to t (empty if h is -1) to this one. */
+		private void append(int h, int t) {
+			if (h < 0) return;
+			if (tail < 0) head= h;
+			else dc.nextFree[tail]= h;
+			tail= t;
+		}
+	}
+}
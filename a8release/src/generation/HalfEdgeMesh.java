@@ -0,0 +1,503 @@
+package generation;
+
+import java.util.Arrays;
+
+/** An instance is a Delaunay triangulation stored as a half-edge mesh in
+ * primitive arrays, without an object per triangle or edge.
+ *
+ * Vertices 0, 1, and 2 are the corners of a bounding triangle that contains
+ * every point added; the others are numbered in the order they are added.
+ * Triangle t consists of the half-edges 3t, 3t+1, and 3t+2 in
+ * counterclockwise order. Half-edge h runs from vertex org[h] to the origin
+ * of the next half-edge of its triangle, and twin[h] is the half-edge running
+ * the other way, or -1 on the boundary of the bounding triangle.
+ *
+ * Points are located by walking from the triangle of the previous point, so
+ * adding points that are close to each other in turn is fast.
+ *
+ * Vertices can also be removed, which frees their triangles for reuse (a
+ * freed triangle has org -1). With journaling on, each change records the
+ * edges it removes and adds (see removedEdges and addedEdges). */
+final class HalfEdgeMesh {
+
+	/* The coordinates of the vertices, and the number of vertices. */
+	private int[] vx, vy;
+	private int nv;
+
+	/* A half-edge leaving each vertex, or -1 if the vertex was removed. */
+	private int[] vedge;
+
+	/* The origin and twin of each half-edge, and the number of triangles. */
+	private int[] org, twin;
+	private int nt;
+
+	/* A triangle at which to start looking for the next point. */
+	private int last;
+
+	/* Half-edges whose Delaunay condition must be checked. */
+	private int[] stack= new int[64];
+
+	/* State of the generator choosing the first edge to test in a walk. */
+	private int seed= 1;
+
+	/* The first freed triangle, each freed triangle t keeping the next one in
+	 * twin[3t], or -1. */
+	private int free= -1;
+
+	/* The half-edges leaving a vertex, as found by ring. */
+	private int[] ring= new int[16];
+
+	/* True iff the vertex last passed to ring lies on the boundary. */
+	private boolean onBoundary;
+
+	/* True iff changes record the edges they remove and add. */
+	private boolean journaling;
+
+	/* The edges removed and added by the last change, as pairs of vertex
+	 * numbers, and the number of ints used in each. */
+	private int[] removed= new int[16], added= new int[16];
+	private int nRemoved, nAdded;
+
+	/** Constructor: a mesh consisting of the bounding triangle with corners
+	 * (ax, ay), (bx, by), (cx, cy), with room for about n more points.
+	 * Precondition: the corners are not collinear. */
+	HalfEdgeMesh(int ax, int ay, int bx, int by, int cx, int cy, int n) {
+		int size= Math.max(n, 16);
+		vx= new int[size + 3];
+		vy= new int[size + 3];
+		vedge= new int[size + 3];
+		org= new int[6 * size + 3];
+		twin= new int[6 * size + 3];
+
+		addVertex(ax, ay);
+		if (Predicates.orient(ax, ay, bx, by, cx, cy) > 0) {
+			addVertex(bx, by);
+			addVertex(cx, cy);
+		} else {
+			addVertex(cx, cy);
+			addVertex(bx, by);
+		}
+		setTriangle(nt++, 0, 1, 2);
+		twin[0]= twin[1]= twin[2]= -1;
+	}
+
+	/** Add the point (x, y) to this triangulation, keeping it Delaunay, and
+	 * return true. If the point is already a vertex or lies outside the
+	 * bounding triangle, do nothing and return false. */
+	boolean insert(int x, int y) {
+		nRemoved= nAdded= 0;
+
+		// walk towards the point, crossing an edge that has it on its right
+		int t= last;
+		walk: while (true) {
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			int start= (seed >>> 1) % 3;
+			for (int i= 0; i < 3; ++i) {
+				int h= 3 * t + (start + i) % 3;
+				if (orient(h, x, y) < 0) {
+					if (twin[h] < 0) return false;
+					t= twin[h] / 3;
+					continue walk;
+				}
+			}
+			break;
+		}
+
+		// the point is in triangle t: inside, on an edge, or on a vertex
+		int onEdge= -1;
+		for (int h= 3 * t; h < 3 * t + 3; ++h) {
+			if (orient(h, x, y) == 0) {
+				if (onEdge >= 0) return false;
+				onEdge= h;
+			}
+		}
+
+		ensureCapacity();
+		int p= addVertex(x, y);
+		if (onEdge < 0) splitTriangle(t, p);
+		else splitEdge(onEdge, p);
+		last= t;
+
+		if (journaling) {
+			int d= ring(p);
+			for (int i= 0; i != d; ++i)
+				record(true, p, org[next(ring[i])]);
+			if (onBoundary) record(true, p, org[prev(ring[d - 1])]);
+		}
+		return true;
+	}
+
+	/** Like insert(x, y), but start looking for the point at vertex v, which
+	 * should be close to it. */
+	boolean insert(int x, int y, int v) {
+		if (isVertex(v)) last= vedge[v] / 3;
+		return insert(x, y);
+	}
+
+	/** Remove vertex v from this triangulation, keeping it Delaunay, and
+	 * return true. Do nothing and return false if v is a corner of the
+	 * bounding triangle or not a vertex. */
+	boolean remove(int v) {
+		nRemoved= nAdded= 0;
+		if (v < 3 || !isVertex(v)) return false;
+
+		// the hole left by v is the polygon pv[0 .. m-1], counterclockwise;
+		// po[i] is the half-edge outside its edge pv[i] -> pv[i+1], or -1
+		int d= ring(v);
+		int m= onBoundary ? d + 1 : d;
+		int[] pv= new int[m], po= new int[m];
+		for (int i= 0; i != d; ++i) {
+			int h= next(ring[i]);
+			pv[i]= org[h];
+			po[i]= twin[h];
+			record(false, v, pv[i]);
+		}
+		if (onBoundary) {
+			pv[d]= org[prev(ring[d - 1])];
+			po[d]= -1;
+			record(false, v, pv[d]);
+		}
+		for (int i= 0; i != d; ++i)
+			freeTriangle(ring[i] / 3);
+		vedge[v]= -1;
+
+		// cut off ears whose circumcircles hold no other vertex of the hole;
+		// since the triangulation is unique, such an ear always exists
+		while (m > 3) {
+			int i= 0;
+			while (!isDelaunayEar(pv, m, i))
+				++i;
+			int a= pv[i], b= pv[(i + 1) % m], c= pv[(i + 2) % m];
+			int t= newTriangle();
+			setTriangle(t, a, b, c);
+			link(3 * t, po[i]);
+			link(3 * t + 1, po[(i + 1) % m]);
+			twin[3 * t + 2]= -1;
+			record(true, a, c);
+
+			// the polygon loses b; its new edge a -> c lies across from c -> a
+			po[i]= 3 * t + 2;
+			int j= (i + 1) % m;
+			System.arraycopy(pv, j + 1, pv, j, m - j - 1);
+			System.arraycopy(po, j + 1, po, j, m - j - 1);
+			--m;
+			last= t;
+		}
+		int t= newTriangle();
+		setTriangle(t, pv[0], pv[1], pv[2]);
+		link(3 * t, po[0]);
+		link(3 * t + 1, po[1]);
+		link(3 * t + 2, po[2]);
+		last= t;
+		return true;
+	}
+
+	/** Return true iff vertices pv[i], pv[i+1], pv[i+2] (indices mod m) of
+	 * the polygon pv[0 .. m-1] turn counterclockwise and their circumcircle
+	 * holds none of the polygon's other vertices. */
+	private boolean isDelaunayEar(int[] pv, int m, int i) {
+		int a= pv[i], b= pv[(i + 1) % m], c= pv[(i + 2) % m];
+		if (Predicates.orient(vx[a], vy[a], vx[b], vy[b], vx[c], vy[c]) <= 0)
+			return false;
+		for (int k= 3; k < m; ++k) {
+			int q= pv[(i + k) % m];
+			if (Predicates.inCircle(vx[a], vy[a], vx[b], vy[b], vx[c], vy[c],
+				vx[q], vy[q]) > 0)
+				return false;
+		}
+		return true;
+	}
+
+	/** Set ring[0 .. result-1] to the half-edges leaving vertex v, in
+	 * counterclockwise order, and set onBoundary to whether v lies on the
+	 * boundary of the bounding triangle; if it does, ring[0] is the half-edge
+	 * leaving v along the boundary, and the neighbors of v are the
+	 * destinations of the ring and the origin of prev(ring[result-1]).
+	 * Precondition: v is a vertex. */
+	private int ring(int v) {
+		// if v is on the boundary, go clockwise to the boundary half-edge
+		int h0= vedge[v];
+		for (int h= h0; ; ) {
+			int g= twin[prev(h)];
+			if (g < 0) {
+				for (h0= vedge[v]; twin[h0] >= 0; )
+					h0= next(twin[h0]);
+				break;
+			}
+			h= g;
+			if (h == h0) break;
+		}
+
+		int d= 0;
+		onBoundary= false;
+		for (int h= h0; ; ) {
+			if (d == ring.length) ring= Arrays.copyOf(ring, 2 * d);
+			ring[d++]= h;
+			h= twin[prev(h)];
+			if (h < 0) {
+				onBoundary= true;
+				break;
+			}
+			if (h == h0) break;
+		}
+		return d;
+	}
+
+	/** Return the vertices adjacent to vertex v, counterclockwise. */
+	int[] neighbors(int v) {
+		int d= ring(v);
+		int[] ns= new int[onBoundary ? d + 1 : d];
+		for (int i= 0; i != d; ++i)
+			ns[i]= org[next(ring[i])];
+		if (onBoundary) ns[d]= org[prev(ring[d - 1])];
+		return ns;
+	}
+
+	/** Return true iff v is a vertex of this triangulation. */
+	boolean isVertex(int v) {
+		return v >= 0 && v < nv && vedge[v] >= 0;
+	}
+
+	/** Make every change record the edges it removes and adds iff on. */
+	void setJournaling(boolean on) {
+		journaling= on;
+	}
+
+	/** Return the edges removed by the last insert or remove (with
+	 * journaling on), as pairs of vertex numbers: edge k joins vertices
+	 * result[2k] and result[2k+1]. */
+	int[] removedEdges() {
+		return Arrays.copyOf(removed, nRemoved);
+	}
+
+	/** Return the edges added by the last insert or remove (with journaling
+	 * on), like removedEdges. */
+	int[] addedEdges() {
+		return Arrays.copyOf(added, nAdded);
+	}
+
+	/** If journaling, record that the edge between vertices u and v was
+	 * added (if add) or removed. */
+	private void record(boolean add, int u, int v) {
+		if (!journaling) return;
+		if (add) {
+			if (nAdded + 2 > added.length) added= Arrays.copyOf(added, 2 * nAdded);
+			added[nAdded++]= u;
+			added[nAdded++]= v;
+		} else {
+			if (nRemoved + 2 > removed.length)
+				removed= Arrays.copyOf(removed, 2 * nRemoved);
+			removed[nRemoved++]= u;
+			removed[nRemoved++]= v;
+		}
+	}
+
+	/** Return the number of vertices, including the bounding triangle's. */
+	int vertexCount() {
+		return nv;
+	}
+
+	/** Return the x coordinate of vertex v. */
+	int x(int v) {
+		return vx[v];
+	}
+
+	/** Return the y coordinate of vertex v. */
+	int y(int v) {
+		return vy[v];
+	}
+
+	/** Return the edges between vertices that are not corners of the
+	 * bounding triangle, as pairs of vertex numbers: edge k connects vertices
+	 * result[2k] and result[2k+1]. Each edge appears once. */
+	int[] edges() {
+		int[] es= new int[6 * nt];
+		int n= 0;
+		for (int h= 0; h < 3 * nt; ++h) {
+			if (org[h - h % 3] < 0) continue;
+			int g= twin[h];
+			int u= org[h];
+			int v= org[next(h)];
+			if ((g < 0 || h < g) && u > 2 && v > 2) {
+				es[n++]= u;
+				es[n++]= v;
+			}
+		}
+		return Arrays.copyOf(es, n);
+	}
+
+	/** Split triangle t into three triangles meeting at vertex p, which lies
+	 * inside it, and restore the Delaunay condition. */
+	private void splitTriangle(int t, int p) {
+		int h0= 3 * t, h1= h0 + 1, h2= h0 + 2;
+		int a= org[h0], b= org[h1], c= org[h2];
+		int g0= twin[h0], g1= twin[h1], g2= twin[h2];
+		int t1= newTriangle(), t2= newTriangle();
+
+		setTriangle(t, a, b, p);
+		setTriangle(t1, b, c, p);
+		setTriangle(t2, c, a, p);
+		link(3 * t, g0);
+		link(3 * t1, g1);
+		link(3 * t2, g2);
+		link(3 * t + 1, 3 * t1 + 2);
+		link(3 * t1 + 1, 3 * t2 + 2);
+		link(3 * t2 + 1, 3 * t + 2);
+
+		legalize(3 * t, 3 * t1, 3 * t2, -1);
+	}
+
+	/** Split the triangles on both sides of half-edge h at vertex p, which
+	 * lies on h, and restore the Delaunay condition. */
+	private void splitEdge(int h, int p) {
+		int t= h / 3;
+		int a= org[h], b= org[next(h)], c= org[prev(h)];
+		int gbc= twin[next(h)], gca= twin[prev(h)];
+		int g= twin[h];
+		int t1= newTriangle();
+		record(false, a, b);
+
+		// triangle t = (a, b, c) becomes (c, a, p) and (b, c, p)
+		setTriangle(t, c, a, p);
+		setTriangle(t1, b, c, p);
+		link(3 * t, gca);
+		link(3 * t1, gbc);
+		link(3 * t + 2, 3 * t1 + 1);
+
+		if (g < 0) {
+			twin[3 * t + 1]= -1;
+			twin[3 * t1 + 2]= -1;
+			legalize(3 * t, 3 * t1, -1, -1);
+			return;
+		}
+
+		// triangle u = (b, a, d) becomes (a, d, p) and (d, b, p)
+		int u= g / 3;
+		int d= org[prev(g)];
+		int gad= twin[next(g)], gdb= twin[prev(g)];
+		int u1= newTriangle();
+		setTriangle(u, a, d, p);
+		setTriangle(u1, d, b, p);
+		link(3 * u, gad);
+		link(3 * u1, gdb);
+		link(3 * u + 1, 3 * u1 + 2);
+		link(3 * u + 2, 3 * t + 1);
+		link(3 * u1 + 1, 3 * t1 + 2);
+
+		legalize(3 * t, 3 * t1, 3 * u, 3 * u1);
+	}
+
+	/** Flip edges until every triangle created by adding a point satisfies
+	 * the Delaunay condition, starting with half-edges h1 .. h4 (ignoring
+	 * -1), which are opposite the new point in their triangles. */
+	private void legalize(int h1, int h2, int h3, int h4) {
+		int size= 0;
+		stack[size++]= h1;
+		stack[size++]= h2;
+		if (h3 >= 0) stack[size++]= h3;
+		if (h4 >= 0) stack[size++]= h4;
+
+		while (size > 0) {
+			int h= stack[--size];
+			int g= twin[h];
+			if (g < 0) continue;
+
+			// triangle (a, b, p) and its neighbor (b, a, d) across h
+			int a= org[h], b= org[next(h)], p= org[prev(h)];
+			int d= org[prev(g)];
+			if (Predicates.inCircle(vx[a], vy[a], vx[b], vy[b], vx[p], vy[p],
+				vx[d], vy[d]) < 0)
+				continue;
+
+			// flip h: the triangles become (a, d, p) and (d, b, p)
+			record(false, a, b);
+			int t= h / 3, u= g / 3;
+			int gbp= twin[next(h)], gpa= twin[prev(h)];
+			int gad= twin[next(g)], gdb= twin[prev(g)];
+			setTriangle(t, a, d, p);
+			setTriangle(u, d, b, p);
+			link(3 * t, gad);
+			link(3 * t + 2, gpa);
+			link(3 * u, gdb);
+			link(3 * u + 1, gbp);
+			link(3 * t + 1, 3 * u + 2);
+
+			if (size + 2 > stack.length)
+				stack= Arrays.copyOf(stack, 2 * stack.length);
+			stack[size++]= 3 * t;
+			stack[size++]= 3 * u;
+		}
+	}
+
+	/** Return the orientation of half-edge h and the point (x, y): 1 if the
+	 * point lies to the left of h, -1 if it lies to the right, 0 if on it. */
+	private int orient(int h, int x, int y) {
+		int a= org[h], b= org[next(h)];
+		return Predicates.orient(vx[a], vy[a], vx[b], vy[b], x, y);
+	}
+
+	/** Set the vertices of triangle t to a, b, c, in counterclockwise order. */
+	private void setTriangle(int t, int a, int b, int c) {
+		org[3 * t]= a;
+		org[3 * t + 1]= b;
+		org[3 * t + 2]= c;
+		vedge[a]= 3 * t;
+		vedge[b]= 3 * t + 1;
+		vedge[c]= 3 * t + 2;
+	}
+
+	/** Return the number of an unused triangle, reusing a freed one if there
+	 * is one. Precondition: ensureCapacity made room for it. */
+	private int newTriangle() {
+		if (free < 0) return nt++;
+		int t= free;
+		free= twin[3 * t];
+		return t;
+	}
+
+	/** Free triangle t for reuse. */
+	private void freeTriangle(int t) {
+		org[3 * t]= -1;
+		twin[3 * t]= free;
+		free= t;
+	}
+
+	/** Make half-edges h and g (which may be -1) twins. */
+	private void link(int h, int g) {
+		twin[h]= g;
+		if (g >= 0) twin[g]= h;
+	}
+
+	/** Add vertex (x, y) and return its number. */
+	private int addVertex(int x, int y) {
+		vx[nv]= x;
+		vy[nv]= y;
+		return nv++;
+	}
+
+	/** Make room for one more vertex and the (up to) two triangles that
+	 * adding it creates. */
+	private void ensureCapacity() {
+		if (nv == vx.length) {
+			vx= Arrays.copyOf(vx, 2 * nv);
+			vy= Arrays.copyOf(vy, 2 * nv);
+			vedge= Arrays.copyOf(vedge, 2 * nv);
+		}
+		if (3 * (nt + 2) > org.length) {
+			org= Arrays.copyOf(org, 2 * org.length);
+			twin= Arrays.copyOf(twin, 2 * twin.length);
+		}
+	}
+
+	/** Return the half-edge after h in its triangle. */
+	private static int next(int h) {
+		return h % 3 == 2 ? h - 2 : h + 1;
+	}
+
+	/** Return the half-edge before h in its triangle. */
+	private static int prev(int h) {
+		return h % 3 == 0 ? h + 2 : h - 1;
+	}
+}
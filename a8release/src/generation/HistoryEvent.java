@@ -30,11 +30,29 @@ public class HistoryEvent {
 	 * Returns a PointLocation for p based on the Triangles in this event.
 	 */
 	public PointLocation select(Point p) {
-		for (Triangle t : ts) {
-			PointLocation pLoc = t.pointLocation(p);
-			if (pLoc.isNotOut())
-				return pLoc;
+		int sel = locate(p);
+		if (sel == Triangle.OUT)
+			return PointLocation.makeOut();
+		return ts[sel >> 3].pointLocation(p);
+	}
+
+	/**
+	 * Returns the location of p (see Triangle.locate) in the first Triangle
+	 * of this event that does not have it OUT, plus 8 times the index of that
+	 * Triangle in this event; Triangle.OUT if all of them have it OUT.
+	 * Allocates nothing.
+	 */
+	int locate(Point p) {
+		for (int i = 0; i != ts.length; ++i) {
+			int loc = ts[i].locate(p);
+			if (loc != Triangle.OUT)
+				return i << 3 | loc;
 		}
-		return PointLocation.makeOut();
+		return Triangle.OUT;
+	}
+
+	/** Returns the Triangle with index i in this event. */
+	Triangle triangle(int i) {
+		return ts[i];
 	}
 }
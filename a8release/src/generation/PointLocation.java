@@ -10,14 +10,14 @@ public class PointLocation {
 	}
 
 	/* The type of location of this Point */
-	private Location l;
+	private final Location l;
 
 	/* The Triangle this Point lies on (for IN/EDGE/VERTEX). null if OUT. */
-	private Triangle t;
+	private final Triangle t;
 
 	/* If IN/OUT, null. If EDGE, this is the vertex OPPOSITE the edge. If
 	 * VERTEX, this is the vertex. */
-	private Point p;
+	private final Point p;
 
 	/** Constructor: a Location l, Triangle t, and Point p. */
 	private PointLocation(Location l, Triangle t, Point p) {
@@ -43,10 +43,15 @@ public class PointLocation {
 		return new PointLocation(Location.VERTEX, t, v);
 	}
 
+	/* The only OUT PointLocation; PointLocations are immutable, so it can be
+	 * shared. */
+	private static final PointLocation OUT= new PointLocation(Location.OUT,
+		null, null);
+
 	/** Return a PointLocation for a Point outside of some area of interest.
-	 */
+	 * All calls return the same object. */
 	public static PointLocation makeOut() {
-		return new PointLocation(Location.OUT, null, null);
+		return OUT;
 	}
 
 	/** If IN/EDGE/VERTEX, return the Triangle on which this Point lies.
@@ -0,0 +1,77 @@
+package generation;
+
+import java.util.Arrays;
+
+/** An instance is a set of points with int coordinates, stored as packed
+ * longs in an open-addressing hash table, without an object per point. */
+final class PointSet {
+
+	/* The value marking an empty slot; the point it encodes is kept in
+	 * containsEmpty instead. */
+	private static final long EMPTY= Long.MIN_VALUE;
+
+	/* The packed points, at most half of the slots used. */
+	private long[] table;
+
+	/* The number of points in this set. */
+	private int size;
+
+	/* True iff this set contains the point encoded by EMPTY. */
+	private boolean containsEmpty;
+
+	/** Constructor: an empty set with room for about n points. */
+	PointSet(int n) {
+		int capacity= 16;
+		while (capacity < 2L * n && capacity < 1 << 30)
+			capacity <<= 1;
+		table= new long[capacity];
+		Arrays.fill(table, EMPTY);
+	}
+
+	/** Add (x, y) to this set. Return true iff it was not in the set. */
+	boolean add(int x, int y) {
+		long key= (long) x << 32 | (y & 0xFFFFFFFFL);
+		if (key == EMPTY) {
+			if (containsEmpty) return false;
+			containsEmpty= true;
+			++size;
+			return true;
+		}
+
+		int mask= table.length - 1;
+		int i= hash(key) & mask;
+		while (table[i] != EMPTY) {
+			if (table[i] == key) return false;
+			i= (i + 1) & mask;
+		}
+		table[i]= key;
+		if (++size > table.length / 2) grow();
+		return true;
+	}
+
+	/** Return the number of points in this set. */
+	int size() {
+		return size;
+	}
+
+	/** Double the number of slots. */
+	private void grow() {
+		long[] old= table;
+		table= new long[2 * old.length];
+		Arrays.fill(table, EMPTY);
+		int mask= table.length - 1;
+		for (long key : old) {
+			if (key == EMPTY) continue;
+			int i= hash(key) & mask;
+			while (table[i] != EMPTY)
+				i= (i + 1) & mask;
+			table[i]= key;
+		}
+	}
+
+	/** Return a well-mixed hash of key. */
+	private static int hash(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ key >>> 32);
+	}
+}
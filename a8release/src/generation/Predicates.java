@@ -0,0 +1,146 @@
+package generation;
+
+import java.awt.Point;
+import java.math.BigInteger;
+
+/** Exact geometric predicates on points with int coordinates.
+ *
+ * The results are computed exactly: in long arithmetic when the coordinates
+ * are close enough together, otherwise with a floating-point filter that
+ * falls back to exact arithmetic when the filter cannot decide.
+ *
+ * inCircle never returns 0: ties (four cocircular points) are broken by
+ * simulation of simplicity, lifting each point above the paraboloid by a
+ * tiny amount that is larger for points that come earlier in (x, y) order.
+ * The Delaunay triangulation of a set of distinct points under these
+ * predicates is unique, whatever the order in which the points are added. */
+final class Predicates {
+
+	/* The largest coordinate difference for which orient fits in a long. */
+	private static final long ORIENT_LIMIT= 1L << 30;
+
+	/* The largest coordinate difference for which inCircle fits in a long. */
+	private static final long IN_CIRCLE_LIMIT= 1L << 14;
+
+	/* Relative error bound of inCircle computed in doubles from exact
+	 * coordinate differences (Shewchuk's iccerrboundA). */
+	private static final double IN_CIRCLE_ERROR;
+	static {
+		double eps= Math.ulp(1.0) / 2;
+		IN_CIRCLE_ERROR= (10 + 96 * eps) * eps;
+	}
+
+	/** Not instantiable. */
+	private Predicates() {}
+
+	/** Return 1 if a, b, c turn counterclockwise, -1 if they turn clockwise,
+	 * and 0 if they are collinear. */
+	static int orient(Point a, Point b, Point c) {
+		return orient(a.x, a.y, b.x, b.y, c.x, c.y);
+	}
+
+	/** Return 1 if (ax, ay), (bx, by), (cx, cy) turn counterclockwise, -1 if
+	 * they turn clockwise, and 0 if they are collinear. */
+	static int orient(int ax, int ay, int bx, int by, int cx, int cy) {
+		long acx= (long) ax - cx, acy= (long) ay - cy;
+		long bcx= (long) bx - cx, bcy= (long) by - cy;
+		long l= acx * bcy;
+		long r= acy * bcx;
+		if (Math.abs(acx) <= ORIENT_LIMIT && Math.abs(acy) <= ORIENT_LIMIT
+			&& Math.abs(bcx) <= ORIENT_LIMIT && Math.abs(bcy) <= ORIENT_LIMIT)
+			return Long.signum(l - r);
+
+		// compare the 128-bit products
+		long lh= Math.multiplyHigh(acx, bcy);
+		long rh= Math.multiplyHigh(acy, bcx);
+		if (lh != rh) return lh > rh ? 1 : -1;
+		return Integer.signum(Long.compareUnsigned(l, r));
+	}
+
+	/** Return 1 if d lies inside the circle through a, b, c and -1 if it
+	 * lies outside, breaking ties as described above.
+	 * Precondition: a, b, c turn counterclockwise; a, b, c, d are distinct. */
+	static int inCircle(Point a, Point b, Point c, Point d) {
+		return inCircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y);
+	}
+
+	/** Return 1 if (dx, dy) lies inside the circle through (ax, ay), (bx, by),
+	 * (cx, cy) and -1 if it lies outside, breaking ties as described above.
+	 * Precondition: the first three points turn counterclockwise; all four
+	 * are distinct. */
+	static int inCircle(int ax, int ay, int bx, int by, int cx, int cy,
+		int dx, int dy) {
+		int s= inCircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+		if (s != 0) return s;
+
+		// cocircular: the earliest point whose lifting changes the sign decides
+		int[] xs= { ax, bx, cx, dx };
+		int[] ys= { ay, by, cy, dy };
+		int used= 0;
+		for (int step= 0; step < 4; ++step) {
+			int k= -1;
+			for (int i= 0; i < 4; ++i) {
+				if ((used & 1 << i) == 0 && (k < 0 || xs[i] < xs[k]
+					|| xs[i] == xs[k] && ys[i] < ys[k]))
+					k= i;
+			}
+			used |= 1 << k;
+
+			// the sign of the cofactor of point k's lifted coordinate
+			int i= (k + 1) % 4, j= (k + 2) % 4, m= (k + 3) % 4;
+			s= orient(xs[i], ys[i], xs[j], ys[j], xs[m], ys[m]);
+			if (s != 0) return k % 2 == 0 ? s : -s;
+		}
+		throw new IllegalArgumentException("degenerate triangle");
+	}
+
+	/** Return the sign of the determinant deciding whether (dx, dy) lies
+	 * inside the circle through the other three points, without breaking
+	 * ties. */
+	private static int inCircleExact(int ax, int ay, int bx, int by, int cx,
+		int cy, int dx, int dy) {
+		long adx= (long) ax - dx, ady= (long) ay - dy;
+		long bdx= (long) bx - dx, bdy= (long) by - dy;
+		long cdx= (long) cx - dx, cdy= (long) cy - dy;
+
+		if (Math.abs(adx) <= IN_CIRCLE_LIMIT && Math.abs(ady) <= IN_CIRCLE_LIMIT
+			&& Math.abs(bdx) <= IN_CIRCLE_LIMIT && Math.abs(bdy) <= IN_CIRCLE_LIMIT
+			&& Math.abs(cdx) <= IN_CIRCLE_LIMIT && Math.abs(cdy) <= IN_CIRCLE_LIMIT) {
+			long alift= adx * adx + ady * ady;
+			long blift= bdx * bdx + bdy * bdy;
+			long clift= cdx * cdx + cdy * cdy;
+			return Long.signum(alift * (bdx * cdy - cdx * bdy)
+				+ blift * (cdx * ady - adx * cdy)
+				+ clift * (adx * bdy - bdx * ady));
+		}
+
+		// the differences are exact in doubles; only the products round
+		double bc= (double) bdx * cdy, cb= (double) cdx * bdy;
+		double ca= (double) cdx * ady, ac= (double) adx * cdy;
+		double ab= (double) adx * bdy, ba= (double) bdx * ady;
+		double alift= (double) adx * adx + (double) ady * ady;
+		double blift= (double) bdx * bdx + (double) bdy * bdy;
+		double clift= (double) cdx * cdx + (double) cdy * cdy;
+		double det= alift * (bc - cb) + blift * (ca - ac) + clift * (ab - ba);
+		double permanent= alift * (Math.abs(bc) + Math.abs(cb))
+			+ blift * (Math.abs(ca) + Math.abs(ac))
+			+ clift * (Math.abs(ab) + Math.abs(ba));
+		if (Math.abs(det) > IN_CIRCLE_ERROR * permanent)
+			return det > 0 ? 1 : -1;
+
+		BigInteger[] d= { BigInteger.valueOf(adx), BigInteger.valueOf(ady),
+			BigInteger.valueOf(bdx), BigInteger.valueOf(bdy),
+			BigInteger.valueOf(cdx), BigInteger.valueOf(cdy) };
+		BigInteger[] lift= new BigInteger[3];
+		for (int i= 0; i < 3; ++i)
+			lift[i]= d[2 * i].multiply(d[2 * i]).add(d[2 * i + 1].multiply(d[2 * i + 1]));
+		BigInteger exact= BigInteger.ZERO;
+		for (int i= 0; i < 3; ++i) {
+			int j= (i + 1) % 3, k= (i + 2) % 3;
+			BigInteger cross= d[2 * j].multiply(d[2 * k + 1])
+				.subtract(d[2 * k].multiply(d[2 * j + 1]));
+			exact= exact.add(lift[i].multiply(cross));
+		}
+		return exact.signum();
+	}
+}
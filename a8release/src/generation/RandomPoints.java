@@ -0,0 +1,56 @@
+package generation;
+
+import java.util.Random;
+
+/** Draws distinct random points with int coordinates into primitive arrays,
+ * 8 bytes per point, without creating a Point for each. */
+final class RandomPoints {
+
+	/* Grids with at most this many cells per point to draw are tracked with a
+	 * bit per cell (at most 8 bytes per point); larger ones with a PointSet. */
+	private static final long CELLS_PER_POINT= 64;
+
+	/** Not instantiable. */
+	private RandomPoints() {}
+
+	/** Return n distinct points in the rectangle [0, w] x [0, h], as
+	 * { xs, ys }: point i is (xs[i], ys[i]). Each point is drawn as
+	 * r.nextInt(w + 1), then r.nextInt(h + 1), and a point equal to one drawn
+	 * before it is skipped, so r is used exactly as by drawing until n distinct
+	 * points have been found.
+	 * Throw an IllegalArgumentException if the rectangle has fewer than n
+	 * points. */
+	static int[][] draw(int n, Random r, int w, int h) {
+		long cells= ((long) w + 1) * ((long) h + 1);
+		if (n > cells)
+			throw new IllegalArgumentException(n + " points do not fit in a "
+				+ w + " x " + h + " rectangle");
+
+		int[] xs= new int[n];
+		int[] ys= new int[n];
+		if (cells <= CELLS_PER_POINT * Math.max(n, 1)) {
+			long[] seen= new long[(int) ((cells + 63) >>> 6)];
+			for (int i= 0; i < n; ) {
+				int x= r.nextInt(w + 1), y= r.nextInt(h + 1);
+				long cell= (long) x * (h + 1) + y;
+				long bit= 1L << cell;
+				int word= (int) (cell >>> 6);
+				if ((seen[word] & bit) != 0) continue;
+				seen[word] |= bit;
+				xs[i]= x;
+				ys[i]= y;
+				++i;
+			}
+		} else {
+			PointSet seen= new PointSet(n);
+			for (int i= 0; i < n; ) {
+				int x= r.nextInt(w + 1), y= r.nextInt(h + 1);
+				if (!seen.add(x, y)) continue;
+				xs[i]= x;
+				ys[i]= y;
+				++i;
+			}
+		}
+		return new int[][] { xs, ys };
+	}
+}
@@ -0,0 +1,101 @@
+package generation;
+
+import java.util.Arrays;
+
+/** Orders in which to add points to a triangulation so that each point is
+ * close to the one added before it, while keeping the triangulation's
+ * expected cost low. */
+final class SpatialSort {
+
+	/** Not instantiable. */
+	private SpatialSort() {}
+
+	/** Return a biased randomized insertion order (BRIO) of the n points
+	 * (xs[i], ys[i]): result[j] is the point to add j-th.
+	 *
+	 * The points are split into rounds, each about twice as large as the one
+	 * before, and each round is sorted along a Hilbert curve. A point's round
+	 * is chosen by hashing its index, so the order is the same every time. */
+	static int[] brio(int[] xs, int[] ys, int n) {
+		if (n == 0) return new int[0];
+
+		int minX= Integer.MAX_VALUE, minY= Integer.MAX_VALUE;
+		int maxX= Integer.MIN_VALUE, maxY= Integer.MIN_VALUE;
+		for (int i= 0; i < n; ++i) {
+			minX= Math.min(minX, xs[i]);
+			minY= Math.min(minY, ys[i]);
+			maxX= Math.max(maxX, xs[i]);
+			maxY= Math.max(maxY, ys[i]);
+		}
+
+		// the Hilbert curve fills a square of 2^levels cells on a side; the
+		// rest of each key's 63 bits hold the point's index
+		int indexBits= 64 - Long.numberOfLeadingZeros(n - 1L);
+		int levels= Math.min(32, (63 - indexBits) / 2);
+		long extent= Math.max((long) maxX - minX, (long) maxY - minY);
+		int shift= Math.max(0, 64 - Long.numberOfLeadingZeros(extent) - levels);
+
+		// round r holds the points with r = rounds - 1 - (trailing zeros of the
+		// hash), so about half of them are in the last round
+		int rounds= Math.max(1, 32 - Integer.numberOfLeadingZeros(n));
+		int[] round= new int[n];
+		int[] start= new int[rounds + 1];
+		for (int i= 0; i < n; ++i) {
+			int tz= Integer.numberOfTrailingZeros(mix(i) | 1 << (rounds - 1));
+			round[i]= rounds - 1 - tz;
+			++start[round[i] + 1];
+		}
+		for (int r= 0; r < rounds; ++r)
+			start[r + 1] += start[r];
+
+		long[] keys= new long[n];
+		int[] next= Arrays.copyOf(start, rounds);
+		for (int i= 0; i < n; ++i) {
+			long hx= ((long) xs[i] - minX) >>> shift;
+			long hy= ((long) ys[i] - minY) >>> shift;
+			keys[next[round[i]]++]= hilbert(hx, hy, levels) << indexBits | i;
+		}
+
+		int[] order= new int[n];
+		long mask= (1L << indexBits) - 1;
+		for (int r= 0; r < rounds; ++r) {
+			Arrays.sort(keys, start[r], start[r + 1]);
+			for (int j= start[r]; j < start[r + 1]; ++j)
+				order[j]= (int) (keys[j] & mask);
+		}
+		return order;
+	}
+
+	/** Return the distance along a Hilbert curve filling a square of
+	 * 2^levels x 2^levels cells of the cell (x, y).
+	 * Precondition: 0 <= x, y < 2^levels, levels <= 32. */
+	static long hilbert(long x, long y, int levels) {
+		long side= 1L << levels;
+		long d= 0;
+		for (long s= side >>> 1; s > 0; s >>>= 1) {
+			int rx= (x & s) != 0 ? 1 : 0;
+			int ry= (y & s) != 0 ? 1 : 0;
+			d += s * s * ((3 * rx) ^ ry);
+
+			// rotate the quadrant so the curve continues in the right direction
+			if (ry == 0) {
+				if (rx == 1) {
+					x= side - 1 - x;
+					y= side - 1 - y;
+				}
+				long t= x;
+				x= y;
+				y= t;
+			}
+		}
+		return d;
+	}
+
+	/** Return a well-mixed hash of i. */
+	private static int mix(int i) {
+		int h= i * 0x9E3779B9;
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		return h ^ h >>> 13;
+	}
+}
@@ -0,0 +1,429 @@
+package generation;
+
+import java.awt.Point;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** An instance generates a random board too large to hold in memory, tile by
+ * tile, and streams it to a binary file.
+ *
+ * The board's points are drawn in blocks of about BLOCK_POINTS, each from its
+ * own RNG, so any block can be drawn again on its own. Blocks are grouped into
+ * square tiles, which are triangulated independently and in parallel. Each
+ * tile is triangulated with the points of nearby blocks within a margin of
+ * it, and a triangle of that triangulation belongs to the triangulation of
+ * the whole board if its circumcircle meets no point of the board outside
+ * the margin. If some triangle at a point of the tile fails that test, the
+ * tile is triangulated again, with each side of the margin that a failed
+ * circumcircle crossed made at least twice as wide and wide enough for all of
+ * them. The edges written are thus exactly those of the
+ * DelaunayTriangulation of all the points, in the board's rectangle.
+ *
+ * The file consists of big-endian ints. The header is the magic number
+ * MAGIC, VERSION, the width and height of the board, its number of nodes,
+ * the IDs of Earth and the target, and the number of tile columns and rows.
+ * Then, for each tile, in rows from the bottom and from left to right: its
+ * number of nodes k, then x, y, and gems of each of them (their IDs are
+ * consecutive, following those of the tile before it); then its number of
+ * edges m, then the IDs of the two ends of each of them. A tile lists the
+ * edges whose lower ID is one of its nodes, and that end first. Edges are
+ * not trimmed, as they are on a Board. */
+public final class TiledGenerator {
+
+	/* The first int of a file, "A8TB", and the version of the format. */
+	public static final int MAGIC= 0x41385442, VERSION= 1;
+
+	/* The number of points per tile if none is given. */
+	public static final int DEFAULT_TILE_POINTS= 1 << 18;
+
+	/* The mean number of points per block. */
+	private static final int BLOCK_POINTS= 1 << 10;
+
+	/* The first margin around a tile, in mean distances between points. */
+	private static final int MARGIN= 8;
+
+	/* The seed, number of nodes, and dimensions of the board. */
+	private final long seed;
+	private final int n, width, height;
+
+	/* The bounds on the gems of a node. */
+	private final int minGems, maxGems;
+
+	/* The number of columns and rows of blocks, of blocks per tile side, and
+	 * of tiles, and the total number of blocks. */
+	private final int bx, by, tb, tx, ty;
+	private final long blocks;
+
+	/* The IDs of Earth and the target. */
+	private final int earth, target;
+
+	/* The bounding triangle of the board's triangulation. */
+	private final Point[] corners;
+
+	/** Constructor: a generator of the board with seed s and n nodes, with
+	 * gems in [minGems, maxGems], in the rectangle [0, w] x [0, h], in tiles
+	 * of about DEFAULT_TILE_POINTS points. */
+	public TiledGenerator(long s, int n, int w, int h, int minGems, int maxGems) {
+		this(s, n, w, h, minGems, maxGems, DEFAULT_TILE_POINTS);
+	}
+
+	/** Constructor: a generator of the board with seed s and n nodes, with
+	 * gems in [minGems, maxGems], in the rectangle [0, w] x [0, h], in tiles
+	 * of about tilePoints points.
+	 * Throw an IllegalArgumentException if n < 2 or the blocks are too small
+	 * for their points. */
+	public TiledGenerator(long s, int n, int w, int h, int minGems, int maxGems,
+		int tilePoints) {
+		if (n < 2 || w <= 0 || h <= 0 || minGems > maxGems || tilePoints <= 0)
+			throw new IllegalArgumentException("bad board parameters");
+		seed= s;
+		this.n= n;
+		width= w;
+		height= h;
+		this.minGems= minGems;
+		this.maxGems= maxGems;
+
+		long b= Math.max(1, (n + BLOCK_POINTS - 1) / BLOCK_POINTS);
+		double aspect= (w + 1.0) / (h + 1.0);
+		bx= (int) Math.max(1, Math.min(w + 1, Math.round(Math.sqrt(b * aspect))));
+		by= (int) Math.max(1, Math.min(h + 1, (b + bx - 1) / bx));
+		blocks= (long) bx * by;
+		long fewest= ((long) w + 1) / bx * (((long) h + 1) / by);
+		if ((n + blocks - 1) / blocks > fewest)
+			throw new IllegalArgumentException(n + " points do not fit in a "
+				+ w + " x " + h + " board");
+		tb= (int) Math.max(1, Math.round(Math.sqrt((double) tilePoints
+			/ BLOCK_POINTS)));
+		tx= (bx + tb - 1) / tb;
+		ty= (by + tb - 1) / tb;
+
+		earth= 0;
+		target= new Random(s).nextInt(n - 1) + 1;
+		corners= DelaunayTriangulation.outerTriangle(new Point(0, 0),
+			new Point(w, h));
+	}
+
+	/** Return the number of tiles. */
+	public int tileCount() {
+		return tx * ty;
+	}
+
+	/** Write the board to out, triangulating up to threads tiles at once, and
+	 * return the number of edges written. The file is the same for any number
+	 * of threads. out is flushed but not closed. */
+	public long write(OutputStream out, int threads) throws IOException {
+		if (threads <= 0)
+			throw new IllegalArgumentException("threads must be > 0");
+		DataOutputStream d= new DataOutputStream(new BufferedOutputStream(out,
+			1 << 16));
+		for (int v : new int[] { MAGIC, VERSION, width, height, n, earth, target,
+			tx, ty })
+			d.writeInt(v);
+
+		ExecutorService workers= Executors.newFixedThreadPool(threads, r -> {
+			Thread t= new Thread(r, "tile-generator");
+			t.setDaemon(true); // never keep the program alive
+			return t;
+		});
+		try {
+			Queue<Future<int[][]>> ahead= new ArrayDeque<>(2 * threads);
+			int submitted= 0;
+			long edges= 0;
+			for (int t= 0; t < tileCount(); ++t) {
+				while (ahead.size() < 2 * threads && submitted < tileCount()) {
+					int k= submitted++;
+					ahead.add(workers.submit(() -> tile(k % tx, k / tx)));
+				}
+				int[][] tile= get(ahead.remove());
+				int[] nodes= tile[0], es= tile[1];
+				d.writeInt(nodes.length / 3);
+				for (int v : nodes)
+					d.writeInt(v);
+				d.writeInt(es.length / 2);
+				for (int v : es)
+					d.writeInt(v);
+				edges += es.length / 2;
+			}
+			d.flush();
+			return edges;
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	/** Return the result of f, waiting for it. */
+	private static int[][] get(Future<int[][]> f) throws IOException {
+		try {
+			return f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted generating tiles");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException("failed to generate tile", e);
+		}
+	}
+
+	/** Return the tile in column c and row r, as { nodes, edges }: x, y, and
+	 * gems of each of its nodes, by ID, and the ends of each edge it lists. */
+	private int[][] tile(int c, int r) {
+		int first= firstId(blocksBefore(c, r));
+		int own= firstId(blocksBefore(c, r) + (long) tileWidth(c) * tileHeight(r))
+			- first;
+		int[] nodes= new int[3 * own];
+		long x0= blockX(c * tb), x1= blockX(c * tb + tileWidth(c)) - 1;
+		long y0= blockY(r * tb), y1= blockY(r * tb + tileHeight(r)) - 1;
+		double spacing= Math.sqrt((width + 1.0) * (height + 1.0) / n);
+
+		long m= (long) Math.ceil(MARGIN * spacing);
+		long[] margin= { m, m, m, m }; // left, bottom, right, top
+		while (true) {
+			long rx0= Math.max(0, x0 - margin[0]), ry0= Math.max(0, y0 - margin[1]);
+			long rx1= Math.min(width, x1 + margin[2]);
+			long ry1= Math.min(height, y1 + margin[3]);
+			Region p= new Region(own, rx0, ry0, rx1, ry1);
+
+			// the points of the tile first, by ID, then the others in the region
+			for (int j= blockRow(ry0); j <= blockRow(ry1); ++j) {
+				for (int i= blockColumn(rx0); i <= blockColumn(rx1); ++i) {
+					boolean mine= i / tb == c && j / tb == r;
+					long ord= ordinal(i, j);
+					int id= firstId(ord);
+					int[][] pts= block(i, j, ord, mine ? nodes : null,
+						3 * (id - first));
+					for (int k= 0; k != pts[0].length; ++k, ++id) {
+						int x= pts[0][k], y= pts[1][k];
+						if (mine) p.set(id - first, x, y, id);
+						else if (x >= rx0 && x <= rx1 && y >= ry0 && y <= ry1)
+							p.add(x, y, id);
+					}
+				}
+			}
+
+			int[] es= p.edges(own);
+			if (es != null) {
+				for (int id : new int[] { earth, target }) {
+					if (id >= first && id < first + own) nodes[3 * (id - first) + 2]= 0;
+				}
+				return new int[][] { nodes, es };
+			}
+
+			long[] need= { x0 - p.needX0, y0 - p.needY0, p.needX1 - x1,
+				p.needY1 - y1 };
+			for (int k= 0; k != 4; ++k) {
+				if (need[k] > margin[k]) margin[k]= Math.max(2 * margin[k], need[k]);
+			}
+		}
+	}
+
+	/** Return the points of block (i, j), with ordinal ord, as { xs, ys }. If
+	 * nodes is not null, also store x, y, and gems of point k in
+	 * nodes[at + 3k .. at + 3k + 2]. */
+	private int[][] block(int i, int j, long ord, int[] nodes, int at) {
+		int count= firstId(ord + 1) - firstId(ord);
+		Random r= new Random(seed ^ ord * 0x9E3779B97F4A7C15L);
+		long x= blockX(i), y= blockY(j);
+		int[][] pts= RandomPoints.draw(count, r,
+			(int) (blockX(i + 1) - x - 1), (int) (blockY(j + 1) - y - 1));
+		for (int k= 0; k != count; ++k) {
+			pts[0][k] += x;
+			pts[1][k] += y;
+			if (nodes != null) {
+				nodes[at + 3 * k]= pts[0][k];
+				nodes[at + 3 * k + 1]= pts[1][k];
+				double weight= r.nextDouble();
+				weight *= weight; // as Board chooses gems
+				nodes[at + 3 * k + 2]= (int) (weight * (maxGems - minGems + 1))
+					+ minGems;
+			}
+		}
+		return pts;
+	}
+
+	/** Return the ID of the first point of the block with ordinal ord. */
+	private int firstId(long ord) {
+		return (int) (n * ord / blocks);
+	}
+
+	/** Return the ordinal of block (i, j): blocks are numbered by tile, and
+	 * in rows from left to right within each tile. */
+	private long ordinal(int i, int j) {
+		int c= i / tb, r= j / tb;
+		return blocksBefore(c, r) + (long) (j - r * tb) * tileWidth(c)
+			+ (i - c * tb);
+	}
+
+	/** Return the number of blocks in tiles before the one in column c and
+	 * row r. */
+	private long blocksBefore(int c, int r) {
+		return (long) r * tb * bx + (long) tileHeight(r) * c * tb;
+	}
+
+	/** Return the number of columns of blocks in tile column c. */
+	private int tileWidth(int c) {
+		return Math.min(tb, bx - c * tb);
+	}
+
+	/** Return the number of rows of blocks in tile row r. */
+	private int tileHeight(int r) {
+		return Math.min(tb, by - r * tb);
+	}
+
+	/** Return the least x coordinate of block column i. */
+	private long blockX(int i) {
+		return i * (width + 1L) / bx;
+	}
+
+	/** Return the least y coordinate of block row j. */
+	private long blockY(int j) {
+		return j * (height + 1L) / by;
+	}
+
+	/** Return the block column containing x coordinate x. */
+	private int blockColumn(long x) {
+		int i= (int) (x * bx / (width + 1L));
+		while (blockX(i + 1) <= x)
+			++i;
+		return i;
+	}
+
+	/** Return the block row containing y coordinate y. */
+	private int blockRow(long y) {
+		int j= (int) (y * by / (height + 1L));
+		while (blockY(j + 1) <= y)
+			++j;
+		return j;
+	}
+
+	/** The points of the board in a rectangle around one tile, with their
+	 * IDs: the tile's own points first. */
+	private final class Region {
+
+		/* The rectangle [x0, x1] x [y0, y1] of the board this Region covers. */
+		private final long x0, y0, x1, y1;
+
+		/* The coordinates and ID of each point, and the number of points. */
+		private int[] xs, ys, ids;
+		private int size;
+
+		/* After edges returns null, a rectangle [needX0, needX1] x
+		 * [needY0, needY1] containing the parts of the board within the
+		 * circumcircles that failed, and this Region. */
+		long needX0, needY0, needX1, needY1;
+
+		/** Constructor: a Region covering [x0, x1] x [y0, y1], with room for
+		 * the given number of points of its tile. */
+		Region(int own, long x0, long y0, long x1, long y1) {
+			this.x0= needX0= x0;
+			this.y0= needY0= y0;
+			this.x1= needX1= x1;
+			this.y1= needY1= y1;
+			xs= new int[2 * own + 16];
+			ys= new int[xs.length];
+			ids= new int[xs.length];
+			size= own;
+		}
+
+		/** Set point k to (x, y), with ID id. */
+		void set(int k, int x, int y, int id) {
+			xs[k]= x;
+			ys[k]= y;
+			ids[k]= id;
+		}
+
+		/** Add point (x, y), with ID id. */
+		void add(int x, int y, int id) {
+			if (size == xs.length) {
+				xs= Arrays.copyOf(xs, 2 * size);
+				ys= Arrays.copyOf(ys, xs.length);
+				ids= Arrays.copyOf(ids, xs.length);
+			}
+			set(size++, x, y, id);
+		}
+
+		/** Triangulate these points, and return the edges at the first own
+		 * points to points with a higher ID, as pairs of IDs, lower first.
+		 * Return null if some triangle at those points might not belong to
+		 * the triangulation of the whole board, because its circumcircle
+		 * meets the board outside this Region, and set need accordingly. */
+		int[] edges(int own) {
+			Point[] c= corners;
+			HalfEdgeMesh mesh= new HalfEdgeMesh(c[0].x, c[0].y, c[1].x, c[1].y,
+				c[2].x, c[2].y, size);
+			// mesh vertex j + 3 is point order[j]
+			int[] order= SpatialSort.brio(xs, ys, size);
+			int[] vertex= new int[size];
+			for (int j= 0; j != size; ++j) {
+				mesh.insert(xs[order[j]], ys[order[j]]);
+				vertex[order[j]]= j + 3;
+			}
+
+			boolean whole= x0 == 0 && y0 == 0 && x1 == width && y1 == height;
+			int[] es= new int[6 * own + 16];
+			int ne= 0;
+			for (int k= 0; k != own; ++k) {
+				int v= vertex[k];
+				int[] ns= mesh.neighbors(v);
+				for (int i= 0; i != ns.length; ++i) {
+					int a= ns[i], b= ns[(i + 1) % ns.length];
+					if (!whole && Predicates.orient(mesh.x(v), mesh.y(v), mesh.x(a),
+						mesh.y(a), mesh.x(b), mesh.y(b)) > 0)
+						cover(mesh, v, a, b);
+					if (a < 3 || ids[order[a - 3]] < ids[k]) continue;
+					if (ne == es.length) es= Arrays.copyOf(es, 2 * ne);
+					es[ne++]= ids[k];
+					es[ne++]= ids[order[a - 3]];
+				}
+			}
+			if (needX0 < x0 || needY0 < y0 || needX1 > x1 || needY1 > y1)
+				return null;
+			return Arrays.copyOf(es, ne);
+		}
+
+		/** Grow the rectangle need to contain the part of the board within the
+		 * circumcircle of the counterclockwise triangle of mesh vertices a, b,
+		 * c. Rounding errors only make it grow more. */
+		private void cover(HalfEdgeMesh mesh, int a, int b, int c) {
+			double ax= mesh.x(a), ay= mesh.y(a);
+			double bx= mesh.x(b) - ax, by= mesh.y(b) - ay;
+			double cx= mesh.x(c) - ax, cy= mesh.y(c) - ay;
+			double d= 2 * (bx * cy - by * cx);
+			if (!(d > 0)) {
+				needX0= needY0= 0;
+				needX1= width;
+				needY1= height;
+				return;
+			}
+			double b2= bx * bx + by * by, c2= cx * cx + cy * cy;
+			double ux= (cy * b2 - by * c2) / d, uy= (bx * c2 - cx * b2) / d;
+			double radius= Math.sqrt(ux * ux + uy * uy);
+			radius += 1 + radius * 1e-9;
+			double r2= radius * radius;
+			ux += ax;
+			uy += ay;
+
+			// the circle reaches furthest in x on the row of the board nearest
+			// its center, and furthest in y on the nearest column
+			double dy= uy - Math.max(0, Math.min(height, uy));
+			double dx= ux - Math.max(0, Math.min(width, ux));
+			double hx= Math.sqrt(Math.max(0, r2 - dy * dy));
+			double hy= Math.sqrt(Math.max(0, r2 - dx * dx));
+			needX0= Math.min(needX0, (long) Math.max(0, Math.floor(ux - hx)));
+			needX1= Math.max(needX1, (long) Math.min(width, Math.ceil(ux + hx)));
+			needY0= Math.min(needY0, (long) Math.max(0, Math.floor(uy - hy)));
+			needY1= Math.max(needY1, (long) Math.min(height, Math.ceil(uy + hy)));
+		}
+	}
+}
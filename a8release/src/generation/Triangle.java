@@ -5,7 +5,7 @@ import java.awt.Point;
 import java.util.LinkedList;
 import java.util.Set;
 
-/** Helper class used for Delaunay Triangulation. Uses Barycentric coordinates
+/** Helper class used for Delaunay Triangulation. Uses exact orientation tests
  * to determine if a point is inside a given triangle and then tracks any
  * sub-triangles created inside, as well as Triangles sharing an edge with
  * this Triangle.
@@ -15,6 +15,10 @@ import java.util.Set;
  */
 public class Triangle {
 
+    /* Results of locate other than an edge (0, 1, or 2): p is outside this
+     * Triangle, strictly inside it, or on one of its vertices. */
+    static final int OUT= -1, IN= 3, VERTEX= 4;
+
     /* The three vertices defining this Triangle, in no particular order. */
     private Point[] vs= new Point[3];
 
@@ -26,9 +30,9 @@ public class Triangle {
      * Null if no events have occurred for this Triangle. */
     private HistoryEvent event;
 
-    /* Determinant from Barycentric coordinate conversion used to find if a
-     * point is inside of this Triangle */
-    private double detT;
+    /* The orientation of the vertices: 1 if counterclockwise, -1 if
+     * clockwise (and 0 if collinear, which a triangulation never creates). */
+    private int orientation;
 
     /** Constructor: a Triangle with three vertices p1, p2, and p3, no
      * sub-Triangles, and no shared-edge Triangles. */
@@ -36,8 +40,7 @@ public class Triangle {
         vs[0]= p1;
         vs[1]= p2;
         vs[2]= p3;
-        detT= (vs[1].y - vs[2].y) * (vs[0].x - vs[2].x)
-                + (vs[2].x - vs[1].x) * (vs[0].y - vs[2].y);
+        orientation= Predicates.orient(p1, p2, p3);
     }
 
     /** If this Triangle contains p, adds p to this Triangle, splitting the
@@ -46,22 +49,26 @@ public class Triangle {
      * Otherwise, returns false.
      * 
      * N.B. This method allows Points to be put on edges, as well as 4 points to
-     * be on an innermost circumcircle; if either of these occur, the resulting
-     * Delaunay Triangulation will not be unique.
+     * be on an innermost circumcircle. Ties are broken consistently (see
+     * Predicates), so the resulting Delaunay Triangulation is still unique.
      * 
      * Precondition: p's coordinates are unique. outer is the outermost non-null
      * Triangle of a triangulation. */
     public boolean addPoint(Point p, Set<Triangle> ts) {
-        PointLocation pLoc= getInnermost(p);
-        switch (pLoc.getLocation()) {
-            case OUT:
-            case VERTEX: return false;
-            case EDGE:
-                pLoc.getTriangle().addOnEdge(p, pLoc.getPoint(), ts);
-                return true;
-            default: break;
+        // descend the history to the innermost Triangle t containing p
+        Triangle t= this;
+        int loc= locate(p);
+        while (loc != OUT && loc != VERTEX && t.event != null) {
+            int sel= t.event.locate(p);
+            if (sel == OUT) return false;
+            t= t.event.triangle(sel >> 3);
+            loc= sel & 7;
+        }
+        if (loc == OUT || loc == VERTEX) return false;
+        if (loc != IN) {
+            t.addOnEdge(p, t.vs[loc], ts);
+            return true;
         }
-        Triangle t= pLoc.getTriangle();
 
         // add the newly-created sub-Triangles. These will have the order
         // sub[0]: v0, v1, p
@@ -117,8 +124,6 @@ public class Triangle {
      * particular neighbor if necessary, adjusting the triangulation set ts as
      * needed, and maintaining the Delaunay condition.
      * 
-     * N.B. The resulting triangulation will not be unique.
-     * 
      * Precondition: this Triangle is an innermost Triangle. p lies on an edge
      * of this Triangle. */
     private void addOnEdge(Point p, Point offEdge, Set<Triangle> ts) {
@@ -233,10 +238,10 @@ public class Triangle {
         Point[] a= selectPoint(p);
 
         // vector u is (1 - 0), v is (2 - 0).
-        int ux= a[1].x - a[0].x;
-        int uy= a[1].y - a[0].y;
-        int vx= a[2].x - a[0].x;
-        int vy= a[2].y - a[0].y;
+        long ux= a[1].x - a[0].x;
+        long uy= a[1].y - a[0].y;
+        long vx= a[2].x - a[0].x;
+        long vy= a[2].y - a[0].y;
 
         // find the dot product of u and v
         double dot= ux * vx + uy * vy;
@@ -250,39 +255,32 @@ public class Triangle {
 
     /** Return a PointLocation for p relative to this Triangle. */
     public PointLocation pointLocation(Point p) {
-        double l1= ((vs[1].y - vs[2].y) * (p.x - vs[2].x)
-                + (vs[2].x - vs[1].x) * (p.y - vs[2].y)) / detT;
-        double l2= ((vs[2].y - vs[0].y) * (p.x - vs[2].x)
-                + (vs[0].x - vs[2].x) * (p.y - vs[2].y)) / detT;
-        double l3= 1 - l1 - l2;
+        int loc= locate(p);
+        switch (loc) {
+            case OUT: return PointLocation.makeOut();
+            case VERTEX: return PointLocation.makeVertex(this, p);
+            case IN: return PointLocation.makeIn(this);
+            default: return PointLocation.makeEdge(this, vs[loc]);
+        }
+    }
 
-        if (l1 < 0 || l2 < 0 || l3 < 0) return PointLocation.makeOut();
+    /** Return the location of p relative to this Triangle, without creating
+     * a PointLocation: OUT, VERTEX, IN, or (if p is on an edge) the index i
+     * of the vertex vs[i] opposite that edge. */
+    int locate(Point p) {
+        // li has the sign of p's Barycentric coordinate for vertex vs[i-1]
+        int l1= Predicates.orient(vs[1], vs[2], p) * orientation;
+        int l2= Predicates.orient(vs[2], vs[0], p) * orientation;
+        int l3= Predicates.orient(vs[0], vs[1], p) * orientation;
+
+        if (l1 < 0 || l2 < 0 || l3 < 0) return OUT;
         if ((l1 == 0 && l2 == 0) || (l2 == 0 && l3 == 0)
                 || (l3 == 0 && l1 == 0))
-            return PointLocation.makeVertex(this, p);
-        if (l1 == 0) return PointLocation.makeEdge(this, vs[0]);
-        if (l2 == 0) return PointLocation.makeEdge(this, vs[1]);
-        if (l3 == 0) return PointLocation.makeEdge(this, vs[2]);
-        return PointLocation.makeIn(this);
-    }
-
-    /** Return a PointLocation for the location of p within this Triangle.
-     * The PointLocation will be on the innermost Triangle possible. */
-    private PointLocation getInnermost(Point p) {
-        PointLocation pLoc= pointLocation(p);
-        switch (pLoc.getLocation()) {
-            case EDGE:
-            case IN:
-                HistoryEvent he= pLoc.getTriangle().event;
-                if (he == null) return pLoc;
-                pLoc= he.select(p);
-                if (pLoc.isNotOut())
-                    return pLoc.getTriangle().getInnermost(p);
-                else
-                    return pLoc;
-            default:
-                return pLoc;
-        }
+            return VERTEX;
+        if (l1 == 0) return 0;
+        if (l2 == 0) return 1;
+        if (l3 == 0) return 2;
+        return IN;
     }
 
     /** Return a 3-element Point array a where p is a[0] and the
@@ -295,11 +293,11 @@ public class Triangle {
         return new Point[] { vs[i], vs[(i + 1) % 3], vs[(i + 2) % 3] };
     }
 
-    /** Add this Triangle's UEdges to the given Set, only.
-     * Precondition: edges is a mutable set. */
-    public void addUEdgesToSet(Set<UEdge> edges) {
-        for (int i= 0; i != 3; ++i)
-            edges.add(new UEdge(vs[i], vs[(i + 1) % 3]));
+    /** Return vertex i of this Triangle (0 <= i < 3), where vertices 0, 1
+     * and 2 are the points p1, p2 and p3 it was constructed with. Its three
+     * edges join vertices i and (i + 1) % 3 for i = 0, 1, 2. */
+    Point vertex(int i) {
+        return vs[i];
     }
 
     /** Return this Triangle's three vertices, delimited by hyphens. */
@@ -341,9 +339,12 @@ public class Triangle {
             far= edge.unsharedVertex(outer);
         }
 
-        /** Return true iff this Quad satisfies the Delaunay condition. */
+        /** Return true iff this Quad satisfies the Delaunay condition, i.e.
+         * far is not inside the circumcircle of inner. */
         private boolean isDelaunay() {
-            return inner.angle(add) + outer.angle(far) <= Math.PI;
+            if (Predicates.orient(add, edge.p1(), edge.p2()) > 0)
+                return Predicates.inCircle(add, edge.p1(), edge.p2(), far) < 0;
+            return Predicates.inCircle(add, edge.p2(), edge.p1(), far) < 0;
         }
 
         /*** If needed, flips this bad edge, creating two new Triangles and adding new
@@ -4,13 +4,15 @@ import java.awt.Color;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
-import java.awt.geom.Rectangle2D;
 
 /** An instance represents a Circle that can be drawn using a Graphics2D
- * instance. It is drawn within a certain rectangle, with its drawn size and
- * position changing dynamically based on its initial size and position. */
+ * instance. It is drawn at the point of a panel to which a camera, shared
+ * with the other Circles of the panel, maps its "actual" location, so that
+ * moving the camera moves every Circle without updating each one. Its drawn
+ * size does not change with the camera. */
 public class Circle implements Drawable {
 
 	/* Number of pixels between the top of the circle and the bottom of the
@@ -31,16 +33,14 @@ public class Circle implements Drawable {
 	private int nameWidth;
 	private int nameHeight;
 
-	/* The area in which this Circle is drawn. */
-	private Rectangle2D bounds;
-
-	/* The "actual" area that is being drawn. */
-	private Rectangle2D area;
+	/* The transform from "actual" locations to the pixels of the panel on
+	 * which this Circle is drawn; the panel changes it as its camera moves. */
+	private AffineTransform camera;
 
 	/* The "actual" location of this Circle represents. */
 	private Point2D location;
 
-	/* The circle used to draw this Circle. */
+	/* The circle used to draw this Circle, placed when it is drawn. */
 	private Ellipse2D.Double circle;
 
 	/* The name of this planet drawn above it. */
@@ -49,39 +49,23 @@ public class Circle implements Drawable {
 	/* The color of this Circle. */
 	private Color color;
 
-	/** Constructor: a Circle with the given name centered at ctr within the
-	 * given area, drawn in the given bounds with initial diameter d and the
-	 * given color. Its name's size will be measured using fm. */
-	public Circle(String name, Point2D ctr, Rectangle2D area,
-		Rectangle2D bounds, double d, Color color, FontMetrics fm) {
+	/** Constructor: a Circle with the given name centered at ctr, drawn
+	 * where camera maps ctr with diameter d and the given color. Its name's
+	 * size will be measured using fm. */
+	public Circle(String name, Point2D ctr, AffineTransform camera, double d,
+		Color color, FontMetrics fm) {
 		this.name= name;
 		location= ctr;
-		this.area= area;
-		this.bounds= bounds;
+		this.camera= camera;
 		circle= new Ellipse2D.Double(0, 0, d, d);
-		setBounds(bounds);
-		setArea(area);
+		updateDrawnLocation();
 		this.color= color;
 		nameWidth= fm.stringWidth(name);
 		nameHeight= fm.getHeight();
 	}
 
-	/** Set the bounding Rectangle in which this Circle is drawn to r. */
-	public void setBounds(Rectangle2D r) {
-		bounds= r;
-		updateDrawnLocation();
-	}
-
-	/*** Set the area being drawn to r. */
-	public void setArea(Rectangle2D r) {
-		circle.width= circle.width;
-		circle.height= circle.width;
-		area= r;
-		updateDrawnLocation();
-	}
-
-	/** Update the drawn circle's location based on the current true 
-	 * location, bounds, and area. */
+	/** Update the drawn circle's location based on the current true
+	 * location and camera. */
 	protected void updateDrawnLocation() {
 		circle.x= drawnX() - (int) ((circle.width + 1) / 2.0);
 		circle.y= drawnY() - (int) ((circle.height + 1) / 2.0);
@@ -89,15 +73,14 @@ public class Circle implements Drawable {
 
 	/** Graphical x-value for this circle. */
 	public int drawnX() {
-		return (int) ((location.getX() - area.getX()) * bounds.getWidth()
-			/ area.getWidth());
-
+		return (int) (camera.getScaleX() * location.getX()
+			+ camera.getShearX() * location.getY() + camera.getTranslateX());
 	}
 
 	/** Graphical y-value for this circle. */
 	public int drawnY() {
-		return (int) ((location.getY() - area.getY()) * bounds.getHeight()
-			/ area.getHeight());
+		return (int) (camera.getShearY() * location.getX()
+			+ camera.getScaleY() * location.getY() + camera.getTranslateY());
 	}
 
 	/** Return the x-coordinate of the center of this Circle. */
@@ -128,6 +111,7 @@ public class Circle implements Drawable {
 
 	/** Return the graphical bounding box of this Circle. */
 	public Rectangle bounds() {
+		updateDrawnLocation();
 		return new Rectangle(
 			(int) Math.min(circle.x,
 				circle.getCenterX() - nameWidth / 2 - BOUND_PADDING),
@@ -148,6 +132,7 @@ public class Circle implements Drawable {
 	}
 
 	@Override public void draw(Graphics2D g) {
+		updateDrawnLocation();
 		Color c= g.getColor();
 		g.setColor(color);
 		g.fill(circle);
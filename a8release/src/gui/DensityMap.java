@@ -0,0 +1,102 @@
+package gui;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import models.Edge;
+import models.Model;
+import models.Node;
+
+/** An instance is a picture of a whole Model at low resolution, drawn once
+ * and then scaled to show any part of the Model in about the same time
+ * however many Nodes it has. Its Edges are drawn as faint lines, so that many
+ * Edges close together add up to a brighter area, and its Nodes are counted
+ * in square tiles, each drawn brighter the more Nodes it holds. Names are
+ * not drawn. SpacePanel shows this instead of Planets and Lines when too
+ * many of them are in view to draw each one. */
+public class DensityMap {
+
+	/* The most pixels on a side of the picture. */
+	private static final int MAX_SIZE= 2048;
+
+	/* The side of a tile in which Nodes are counted, in pixels of the
+	 * picture. */
+	private static final int TILE= 4;
+
+	/* The color of Edges, drawn with alpha EDGE_ALPHA (out of 255). */
+	private static final Color EDGE_COLOR= Line.COLORS[0];
+	private static final int EDGE_ALPHA= 48;
+
+	/* The color of tiles, drawn with an alpha that grows with the number of
+	 * Nodes in the tile, up to MAX_ALPHA. */
+	private static final Color TILE_COLOR= new Color(255, 240, 200);
+	private static final int MAX_ALPHA= 200;
+
+	/* The picture, with premultiplied alpha so that it is quick to draw: the
+	 * pixel at (i, j) shows the Model around (i / scale, j / scale). */
+	private final BufferedImage picture;
+	private final double scale;
+
+	/** Constructor: a DensityMap of the Nodes and Edges of m. */
+	public DensityMap(Model m) {
+		scale= Math.min(1, (double) MAX_SIZE
+			/ Math.max(1, Math.max(m.width(), m.height())));
+		int w= (int) Math.ceil(m.width() * scale) + 1;
+		int h= (int) Math.ceil(m.height() * scale) + 1;
+		picture= new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+
+		Graphics2D g= picture.createGraphics();
+		try {
+			g.setComposite(AlphaComposite.SrcOver);
+			g.setColor(new Color(EDGE_COLOR.getRed(), EDGE_COLOR.getGreen(),
+				EDGE_COLOR.getBlue(), EDGE_ALPHA));
+			for (Edge e : m.edges()) {
+				Node n1= e.firstExit(), n2= e.secondExit();
+				g.drawLine((int) (n1.x() * scale), (int) (n1.y() * scale),
+					(int) (n2.x() * scale), (int) (n2.y() * scale));
+			}
+
+			int cols= w / TILE + 1, rows= h / TILE + 1;
+			int[] counts= new int[rows * cols];
+			int max= 0;
+			for (Node n : m.nodes()) {
+				int c= (int) (n.y() * scale) / TILE * cols
+					+ (int) (n.x() * scale) / TILE;
+				max= Math.max(max, ++counts[c]);
+			}
+			for (int c= 0; c < counts.length; ++c) {
+				if (counts[c] == 0) continue;
+				int alpha= (int) (MAX_ALPHA * Math.sqrt((double) counts[c] / max));
+				g.setColor(new Color(TILE_COLOR.getRed(), TILE_COLOR.getGreen(),
+					TILE_COLOR.getBlue(), Math.max(alpha, 1)));
+				g.fillRect(c % cols * TILE, c / cols * TILE, TILE, TILE);
+			}
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/** Draw on g the part of the Model in area, scaled to fill a panel of
+	 * the given width and height. */
+	public void draw(Graphics2D g, Rectangle2D area, int width, int height) {
+		// the picture's corners, in pixels of the panel
+		double sx= width / area.getWidth() / scale;
+		double sy= height / area.getHeight() / scale;
+		int x0= (int) Math.floor(-area.getX() * scale * sx);
+		int y0= (int) Math.floor(-area.getY() * scale * sy);
+		int x1= (int) Math.ceil((picture.getWidth() - area.getX() * scale) * sx);
+		int y1= (int) Math.ceil((picture.getHeight() - area.getY() * scale) * sy);
+
+		// tiles are blocks of pixels anyway, and smoothing them while scaling
+		// would cost more than all the rest of a frame
+		Object hint= g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+			RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		g.drawImage(picture, x0, y0, x1 - x0, y1 - y0, null);
+		if (hint != null) g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, hint);
+	}
+}
@@ -0,0 +1,128 @@
+package gui;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/** An instance holds items with bounding boxes in a rectangle of the plane
+ * and can enumerate the items whose boxes meet a given rectangle, in time
+ * that grows with the area of the rectangle and the number of items found
+ * rather than with the number of items. SpacePanel uses it to draw only the
+ * Planets and Lines in view.
+ *
+ * The rectangle is divided into a grid of square cells, sized for a few items
+ * per cell, and each item is kept in every cell its box overlaps. An item is
+ * reported only from the cell holding the bottom-left corner of the part of
+ * its box within the rectangle queried, so it is reported once. */
+public class DrawableGrid<T> {
+
+	/* The average number of items per cell a grid is laid out for. */
+	private static final int ITEMS_PER_CELL= 4;
+
+	/* The number of items a cell has room for when first used. */
+	private static final int CELL_CAPACITY= 4;
+
+	/* The items, in the order they were added, and their boxes: item k spans
+	 * [boxes[4k], boxes[4k+2]] x [boxes[4k+1], boxes[4k+3]]. */
+	private Object[] items;
+	private double[] boxes;
+
+	/* The number of items. */
+	private int size;
+
+	/* The indices in items of the items overlapping each cell, by cell index
+	 * row * cols + column, and the number of them. */
+	private final int[][] cells;
+	private final int[] counts;
+
+	/* The number of rows and columns of cells. */
+	private final int rows, cols;
+
+	/* The minimum x- and y-values of this grid and the side of a cell. */
+	private final double x, y, side;
+
+	/** Constructor: an empty grid over the rectangle with minimum coordinates
+	 * (x, y) and the given dimensions, with cells sized for about items items
+	 * spread evenly over it. Items outside the rectangle may be added, but
+	 * are kept in the cells at its border. */
+	public DrawableGrid(double x, double y, double width, double height,
+		int items) {
+		this.x= x;
+		this.y= y;
+		double s= Math.sqrt(Math.max(width, 1) * Math.max(height, 1)
+			* ITEMS_PER_CELL / Math.max(items, 1));
+		side= Math.max(s, 1);
+		cols= (int) (Math.max(width, 0) / side) + 1;
+		rows= (int) (Math.max(height, 0) / side) + 1;
+		cells= new int[rows * cols][];
+		counts= new int[rows * cols];
+		this.items= new Object[Math.max(items, 1)];
+		boxes= new double[4 * this.items.length];
+	}
+
+	/** Add item to this grid, with bounding box [x0, x1] x [y0, y1].
+	 * Precondition: x0 <= x1 and y0 <= y1. */
+	public void add(T item, double x0, double y0, double x1, double y1) {
+		if (size == items.length) {
+			items= Arrays.copyOf(items, 2 * size);
+			boxes= Arrays.copyOf(boxes, 8 * size);
+		}
+		int k= size++;
+		items[k]= item;
+		boxes[4 * k]= x0;
+		boxes[4 * k + 1]= y0;
+		boxes[4 * k + 2]= x1;
+		boxes[4 * k + 3]= y1;
+
+		int jmax= column(x1);
+		for (int i= row(y0); i <= row(y1); ++i) {
+			for (int j= column(x0); j <= jmax; ++j) {
+				int c= i * cols + j;
+				if (cells[c] == null) cells[c]= new int[CELL_CAPACITY];
+				else if (counts[c] == cells[c].length)
+					cells[c]= Arrays.copyOf(cells[c], 2 * counts[c]);
+				cells[c][counts[c]++]= k;
+			}
+		}
+	}
+
+	/** Call f on each item whose box meets r, once. */
+	@SuppressWarnings("unchecked")
+	public void forEachIn(Rectangle2D r, Consumer<? super T> f) {
+		double rx0= r.getMinX(), ry0= r.getMinY();
+		double rx1= r.getMaxX(), ry1= r.getMaxY();
+		int imax= row(ry1), jmax= column(rx1), jmin= column(rx0);
+		for (int i= row(ry0); i <= imax; ++i) {
+			for (int j= jmin; j <= jmax; ++j) {
+				int c= i * cols + j;
+				for (int h= 0; h < counts[c]; ++h) {
+					int b= 4 * cells[c][h];
+					if (boxes[b] > rx1 || boxes[b + 2] < rx0 || boxes[b + 1] > ry1
+						|| boxes[b + 3] < ry0)
+						continue;
+					// report the item only from the first cell of it found
+					if (column(Math.max(boxes[b], rx0)) != j
+						|| row(Math.max(boxes[b + 1], ry0)) != i)
+						continue;
+					f.accept((T) items[b / 4]);
+				}
+			}
+		}
+	}
+
+	/** Return the column of cells containing x-value px, clamped to the
+	 * grid. */
+	private int column(double px) {
+		return clamp((int) Math.floor((px - x) / side), cols);
+	}
+
+	/** Return the row of cells containing y-value py, clamped to the grid. */
+	private int row(double py) {
+		return clamp((int) Math.floor((py - y) / side), rows);
+	}
+
+	/** Return i clamped to [0, n - 1]. */
+	private static int clamp(int i, int n) {
+		return i < 0 ? 0 : i >= n ? n - 1 : i;
+	}
+}
@@ -0,0 +1,53 @@
+package gui;
+
+import java.util.concurrent.locks.LockSupport;
+
+/** An instance paces a loop that advances a simulation in ticks of a fixed
+ * length of real time and draws frames at a target rate. Each pass of the
+ * loop runs the ticks that came due since the last pass (see ticksDue), so
+ * the simulation keeps time whatever the frame rate, then draws a frame and
+ * sleeps until the next frame is due (see awaitFrame). */
+public class FrameScheduler {
+
+	/* The length of a tick, in ns. */
+	private final long tick;
+
+	/* The time up to which ticks have been counted, and the time the next
+	 * frame is due, as given by System.nanoTime(). */
+	private long simulated, deadline;
+
+	/** Constructor: a FrameScheduler for ticks of tick ns, starting now.
+	 * Precondition: tick > 0. */
+	public FrameScheduler(long tick) {
+		this.tick= tick;
+		simulated= System.nanoTime();
+		deadline= simulated;
+	}
+
+	/** Return the number of ticks that came due since the last call, or 0 if
+	 * paused, in which case the time since the last call is skipped. */
+	public long ticksDue(boolean paused) {
+		long now= System.nanoTime();
+		if (paused) {
+			simulated= now;
+			return 0;
+		}
+		long n= (now - simulated) / tick;
+		simulated += n * tick;
+		return n;
+	}
+
+	/** Sleep until the next frame is due, frameRate frames per second after
+	 * the last. If frames fell behind, the frames missed are dropped rather
+	 * than drawn in a burst.
+	 * Precondition: frameRate > 0. */
+	public void awaitFrame(int frameRate) {
+		long period= 1000000000L / frameRate;
+		long now= System.nanoTime();
+		deadline += period;
+		if (deadline < now - period) deadline= now;
+		for (long left= deadline - now; left > 0;
+			left= deadline - System.nanoTime())
+			LockSupport.parkNanos(left);
+	}
+}
@@ -9,6 +9,7 @@ import java.awt.event.ItemEvent;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import javax.swing.JFrame;
@@ -45,6 +46,9 @@ public class GUI extends JFrame {
 	public static final int UPDATE_PANEL_HEIGHT= 100;
 	public static final int SIDE_PANEL_WIDTH= 300;
 
+	/* The number of frames drawn per second unless set otherwise. */
+	public static final int DEFAULT_FRAME_RATE= 60;
+
 	/* How long to wait for an old renderer to terminate */
 	private static final int RESET_TIMEOUT= 3;
 	private static final TimeUnit RESET_TIMEOUT_UNITS= TimeUnit.SECONDS;
@@ -77,11 +81,14 @@ public class GUI extends JFrame {
 	/* Simulation speed factor; 1 = normal speed, 2 = 2x speed, etc. */
 	private int simSpeed;
 
+	/* The number of frames drawn per second; > 0. */
+	private volatile int frameRate;
+
 	/* iff true, a Renderer will continue to run */
-	private boolean running;
+	private volatile boolean running;
 
 	/* iff true, a Renderer will not update the model */
-	private boolean paused;
+	private volatile boolean paused;
 
 	/* The current renderer for this GUI. */
 	private Renderer renderer;
@@ -107,6 +114,7 @@ public class GUI extends JFrame {
 		spacePanel.callWhenClicked(nodeClicked);
 
 		simSpeed= SidePanel.INITIAL_SPEED;
+		frameRate= DEFAULT_FRAME_RATE;
 
 		// connect listeners
 		sidePanel.addSpeedSliderListener(
@@ -130,29 +138,29 @@ public class GUI extends JFrame {
 		setVisible(true);
 	}
 
-	/** An instance animates a Planet X game. */
+	/** An instance animates a Planet X game. It updates the model simSpeed
+	 * times per Controller.TICKTIME ms while not paused, and renders
+	 * frameRate frames per second, sleeping in between. A frame is requested
+	 * only once the previous one has been rendered, so frames do not pile up
+	 * on the event dispatch thread if it falls behind. */
 	private class Renderer extends SwingWorker<Void, Void> {
+
+		/* True iff a frame was requested and has not been rendered yet. */
+		private final AtomicBoolean framePending= new AtomicBoolean();
+
 		@Override
 		protected Void doInBackground() {
 			running= true;
-			long prevTime= System.nanoTime();
-			long deltaTime= 0;
+			FrameScheduler frames= new FrameScheduler(
+				Controller.TICKTIME * 1000000L);
 			while (running) {
-				if (!paused) {
-					long time= System.nanoTime();
-					deltaTime += time - prevTime;
-					prevTime= time;
-
-					while (deltaTime >= (Controller.TICKTIME * 1e6)) {
-						deltaTime -= (Controller.TICKTIME * 1e6);
-						for (int i= 0; i < simSpeed; ++i)
-							ctrlr.update();
-					}
-				} else {
-					prevTime= System.nanoTime();
+				for (long t= frames.ticksDue(paused); t > 0 && running; --t) {
+					for (int i= 0; i < simSpeed; ++i)
+						ctrlr.update();
 				}
-
-				publish((Void) null);
+				if (framePending.compareAndSet(false, true))
+					publish((Void) null);
+				frames.awaitFrame(frameRate);
 			}
 
 			render();
@@ -161,10 +169,19 @@ public class GUI extends JFrame {
 
 		@Override
 		protected void process(List<Void> chunks) {
+			framePending.set(false);
 			if (running) render();
 		}
 	};
 
+	/** Set the number of frames rendered per second to fps.
+	 * Throw an IllegalArgumentException if fps <= 0. */
+	public void setFrameRate(int fps) {
+		if (fps <= 0)
+			throw new IllegalArgumentException("frame rate must be positive");
+		frameRate= fps;
+	}
+
 	/** Render the current state of the game. */
 	private void render() {
 		spacePanel.update();
@@ -16,6 +16,10 @@ public class Line implements Drawable {
 	public static final Color[] COLORS = { new Color(160, 160, 160),
 		new Color(0, 255, 0), new Color(255, 255, 0), new Color(255, 0, 0) };
 
+	/* The dashed stroke lines are drawn with. */
+	private static final Stroke STROKE= new BasicStroke(LINE_THICKNESS,
+		BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[] { 3 }, 0);
+
 	/* The particular color of this line. */
 	private Color color;
 
@@ -29,19 +33,21 @@ public class Line implements Drawable {
 		color= COLORS[0];
 	}
 
-	/** Change this Line's color based on its number of visits.
+	/** Change this Line's color based on its number of visits, and return
+	 * true iff the color changed.
 	 * Precondition: visits >= 0. */
-	public void setVisits(int visits) {
+	public boolean setVisits(int visits) {
 		int maxIndex= COLORS.length - 1;
+		Color old= color;
 		color= COLORS[visits <= maxIndex ? visits : maxIndex];
+		return color != old;
 	}
 
 	@Override public void draw(Graphics2D g) {
 		Stroke s= g.getStroke();
 		Color c= g.getColor();
 
-		g.setStroke(new BasicStroke(LINE_THICKNESS, BasicStroke.CAP_BUTT,
-			BasicStroke.JOIN_BEVEL, 0, new float[] { 3 }, 0));
+		g.setStroke(STROKE);
 		g.setColor(color);
 
 		g.drawLine(p1.drawnX(), p1.drawnY(), p2.drawnX(), p2.drawnY());
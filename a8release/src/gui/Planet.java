@@ -3,7 +3,7 @@ package gui;
 import java.awt.Color;
 import java.awt.FontMetrics;
 import java.awt.Point;
-import java.awt.geom.Rectangle2D;
+import java.awt.geom.AffineTransform;
 import java.util.Random;
 
 import util.Util;
@@ -17,27 +17,25 @@ public class Planet extends Circle {
 	/* The color of Earth. */
 	private static final Color EARTH_COLOR= new Color(40, 80, 140);
 
-	/** Constructor: a Circle with name name centered at ctr within
-	 * area area, drawn in bounds bounds with initial diameter d and
-	 * color c. */
-	protected Planet(String name, Point ctr, Rectangle2D area,
-		Rectangle2D bounds, double d, Color c, FontMetrics fm) {
-		super(name, ctr, area, bounds, d, c, fm);
+	/** Constructor: a Circle with name name centered at ctr, drawn
+	 * where camera maps ctr with diameter d and color c. */
+	protected Planet(String name, Point ctr, AffineTransform camera, double d,
+		Color c, FontMetrics fm) {
+		super(name, ctr, camera, d, c, fm);
 	}
 
-	/** Return a Planet with name name centered at ctr within are
-	 * area, drawn within bounds bounds. Its name's dimensions are
-	 * determined via fm. */
-	public static Planet make(String name, Point ctr, Rectangle2D area,
-		Rectangle2D bounds, FontMetrics fm, Random r) {
+	/** Return a Planet with name name centered at ctr, drawn where
+	 * camera maps ctr. Its name's dimensions are determined via fm. */
+	public static Planet make(String name, Point ctr, AffineTransform camera,
+		FontMetrics fm, Random r) {
 		if (name.equals(Util.EARTH_NAME)) {
-			return new Planet(name, ctr, area, bounds, BASE_DIAMETER * 2,
+			return new Planet(name, ctr, camera, BASE_DIAMETER * 2,
 				EARTH_COLOR, fm);
 		} else if (name.equals(Util.CRASHED_PLANET_NAME)) {
-			return new Planet(name, ctr, area, bounds, BASE_DIAMETER * 2,
+			return new Planet(name, ctr, camera, BASE_DIAMETER * 2,
 				randomColor(r), fm);
 		} else {
-			return new Planet(name, ctr, area, bounds, BASE_DIAMETER,
+			return new Planet(name, ctr, camera, BASE_DIAMETER,
 				randomColor(r), fm);
 		}
 	}
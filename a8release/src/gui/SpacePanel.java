@@ -6,8 +6,10 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Image;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.KeyEvent;
@@ -15,11 +17,16 @@ import static java.awt.event.KeyEvent.*;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashSet;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
@@ -52,6 +59,12 @@ public class SpacePanel extends JPanel {
 	/* The current area of the Model drawn by this SpacePanel. */
 	private Rectangle2D.Double area;
 
+	/* The transform from the Model's coordinates to this panel's pixels,
+	 * which shows area in the whole panel. The Planets and Ship place
+	 * themselves with it when they are drawn, so moving the camera changes
+	 * only it, however many Planets there are. */
+	private final AffineTransform camera= new AffineTransform();
+
 	/* The current zoom level of the camera. zoom 1: default. zoom > 0. */
 	private int zoom;
 
@@ -64,6 +77,38 @@ public class SpacePanel extends JPanel {
 	/* A map of all Edges to the Lines on this SpacePanel. */
 	private ConcurrentMap<Edge, Line> eToL;
 
+	/* The Planets and the Edges of the Lines on this SpacePanel, by their
+	 * bounding boxes in the Model, so that only those in view are drawn
+	 * (null until a Model is displayed). */
+	private DrawableGrid<Planet> planets;
+	private DrawableGrid<Edge> lines;
+
+	/* The most pixels that a Planet's circle or name extends from its
+	 * center. */
+	private int planetReach;
+
+	/* The background, Planets and Lines as last drawn, for the area in
+	 * layerArea and the size of the image; null if they must be drawn
+	 * again. Frames draw this image and the Ship over it, and the image is
+	 * drawn again only when the view changes, so a still camera costs a
+	 * copy of the image per frame. */
+	private BufferedImage layer;
+	private final Rectangle2D.Double layerArea= new Rectangle2D.Double();
+
+	/* The most Planets drawn one by one. When more would be in view, the
+	 * layer shows densityMap instead, without names. */
+	private static final int MAX_DETAILED= 1000;
+
+	/* A low-resolution picture of the whole Model, drawn when it is
+	 * displayed so that zooming out does not stall a frame (null if the Model
+	 * has at most MAX_DETAILED Nodes, since then all are always drawn). */
+	private DensityMap densityMap;
+
+	/* The number of the Model's departures seen, and the Edges visited by
+	 * those departures. */
+	private int departuresSeen;
+	private final Set<Edge> visited= new LinkedHashSet<>();
+
 	/* The direction in which the camera is moving. */
 	private Direction cameraDir;
 
@@ -101,6 +146,12 @@ public class SpacePanel extends JPanel {
 	 * The Ship will be placed on the starting Node. */
 	public void init(Model m) {
 		// clear the old Board stuff, if necessary
+		planets= null;
+		lines= null;
+		layer= null;
+		densityMap= null;
+		departuresSeen= 0;
+		visited.clear();
 		nToP.clear();
 		eToL.clear();
 
@@ -108,7 +159,6 @@ public class SpacePanel extends JPanel {
 		cameraDir= Direction.NONE;
 		FontMetrics fm= getFontMetrics(FONT);
 
-		Rectangle2D bounds= getBounds();
 		double padding = Math.min(m.width(), m.height()) * 0.02;
 		double w= m.width() + 2 * padding;
 		double h= m.height() + 2 * padding;
@@ -117,21 +167,37 @@ public class SpacePanel extends JPanel {
 
 		// add the Nodes
 		Random r= new Random(m.seed());
+		DrawableGrid<Planet> ps= new DrawableGrid<>(0, 0, m.width(), m.height(),
+			m.nodes().size());
+		int reach= 0;
 		for (Node n : m.nodes()) {
-			Planet p= Planet.make(n.name(), new Point(n.x(), n.y()), area, bounds,
-				fm, r);
+			Planet p= Planet.make(n.name(), new Point(n.x(), n.y()), camera, fm,
+				r);
 			nToP.put(n, p);
+			ps.add(p, n.x(), n.y(), n.x(), n.y());
+			Rectangle b= p.bounds();
+			reach= Math.max(reach, Math.max(
+				Math.max(p.drawnX() - b.x, b.x + b.width - p.drawnX()),
+				Math.max(p.drawnY() - b.y, b.y + b.height - p.drawnY())));
 		}
 
 		// add the Edges
+		DrawableGrid<Edge> ls= new DrawableGrid<>(0, 0, m.width(), m.height(),
+			m.edges().size());
 		for (Edge e : m.edges()) {
-			Line l= new Line(nToP.get(e.firstExit()), nToP.get(e.secondExit()));
+			Node n1= e.firstExit(), n2= e.secondExit();
+			Line l= new Line(nToP.get(n1), nToP.get(n2));
 			eToL.put(e, l);
+			ls.add(e, Math.min(n1.x(), n2.x()), Math.min(n1.y(), n2.y()),
+				Math.max(n1.x(), n2.x()), Math.max(n1.y(), n2.y()));
 		}
+		planetReach= reach;
+		planets= ps;
+		lines= ls;
+		if (m.nodes().size() > MAX_DETAILED) densityMap= new DensityMap(m);
 
 		// add the Ship
-		ship= new Ship(m.shipLocation(), area, bounds, SidePanel.INITIAL_SPEED,
-			fm);
+		ship= new Ship(m.shipLocation(), camera, SidePanel.INITIAL_SPEED, fm);
 
 		// Add a listener for resize events
 		addComponentListener(new ComponentListener() {
@@ -199,10 +265,7 @@ public class SpacePanel extends JPanel {
 	/** Adjust the position of all Drawables on this SpacePanel, to be used
 	 * if this SpacePanel's bounds have changed. */
 	private void changeBounds() {
-		Rectangle2D bounds = getBounds();
-		for (Planet p : nToP.values())
-			p.setBounds(bounds);
-		ship.setBounds(bounds);
+		updateArea();
 		repaint();
 	}
 
@@ -218,11 +281,12 @@ public class SpacePanel extends JPanel {
 		zoom = z;
 	}
 
-	/** Adjust all Drawable positions based on this panel's drawn area. */
+	/** Adjust Drawable positions based on this panel's drawn area and size,
+	 * by setting camera to map area to the whole panel. */
 	private void updateArea() {
-		for (Planet p : nToP.values())
-			p.setArea(area);
-		ship.setArea(area);
+		double sx= Math.max(getWidth(), 1) / area.width;
+		double sy= Math.max(getHeight(), 1) / area.height;
+		camera.setTransform(sx, 0, 0, sy, -area.x * sx, -area.y * sy);
 	}
 
 	/** An instance represents a direction (or lack thereof) in a 2D plane. */
@@ -314,13 +378,16 @@ public class SpacePanel extends JPanel {
 
 		@Override
 		public void mouseReleased(MouseEvent arg0) {
-			Point clicked= arg0.getPoint();
-			Rectangle2D bounds= getBounds();
 			// translate drawn area to "actual" area
-			clicked.x= (int) (clicked.x * area.width / bounds.getWidth() + area.x
-				+ 0.5);
-			clicked.y= (int) (clicked.y * area.height / bounds.getHeight() + area.y
-				+ 0.5);
+			Point2D p;
+			try {
+				p= camera.inverseTransform(arg0.getPoint(), null);
+			} catch (NoninvertibleTransformException e) {
+				whenClicked.accept(null);
+				return;
+			}
+			Point clicked= new Point((int) (p.getX() + 0.5),
+				(int) (p.getY() + 0.5));
 			Node n= model.closestNode(clicked);
 
 			// see if the Node was actually clicked
@@ -339,19 +406,90 @@ public class SpacePanel extends JPanel {
 		whenClicked= fun;
 	}
 
+	/** Return the part of the Model that can appear on this panel: area,
+	 * widened by the Model distance of planetReach pixels. */
+	private Rectangle2D visibleArea() {
+		double dx= planetReach * area.width / Math.max(getWidth(), 1);
+		double dy= planetReach * area.height / Math.max(getHeight(), 1);
+		return new Rectangle2D.Double(area.x - dx, area.y - dy,
+			area.width + 2 * dx, area.height + 2 * dy);
+	}
+
+	/** Return true iff few enough Planets are in view to draw each one: at
+	 * most MAX_DETAILED, if they were spread evenly over the Model. */
+	private boolean detailed() {
+		double shown= area.width * area.height
+			/ ((model.width() + 1.0) * (model.height() + 1.0));
+		return model.nodes().size() * Math.min(shown, 1) <= MAX_DETAILED;
+	}
+
+	/** Bring layer up to date: draw the background and the Planets ps and
+	 * Lines ls in view again if the area drawn or the size of this panel
+	 * changed, and otherwise draw over it the Lines whose number of visits
+	 * changed since it was drawn. If too many Planets are in view (see
+	 * detailed()), draw the density map and the visited Lines instead of ps
+	 * and ls. */
+	private void updateLayer(DrawableGrid<Planet> ps, DrawableGrid<Edge> ls) {
+		int w= Math.max(getWidth(), 1);
+		int h= Math.max(getHeight(), 1);
+		boolean resized= layer == null || layer.getWidth() != w
+			|| layer.getHeight() != h;
+		boolean stale= resized || !layerArea.equals(area);
+		if (resized) {
+			GraphicsConfiguration gc= getGraphicsConfiguration();
+			layer= gc != null ? gc.createCompatibleImage(w, h)
+				: new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+		}
+		layerArea.setRect(area);
+
+		Rectangle2D view= visibleArea();
+		Graphics2D g= layer.createGraphics();
+		try {
+			g.setFont(getFont());
+			// visits only change when the ship sets out along an Edge
+			int departures= model.departures();
+			for (int k= departuresSeen; k < departures; ++k) {
+				Edge e= model.departure(k);
+				visited.add(e);
+				Line l= eToL.get(e);
+				if (l.setVisits(e.getVisits()) && !stale) l.draw(g);
+			}
+			departuresSeen= departures;
+
+			if (stale) {
+				g.setColor(getBackground());
+				g.fillRect(0, 0, w, h);
+				g.drawImage(backgroundImage, 0, 0, w, h, null);
+				if (detailed()) {
+					ps.forEachIn(view, p -> p.draw(g));
+					ls.forEachIn(view, e -> {
+						Line l= eToL.get(e);
+						l.setVisits(e.getVisits());
+						l.draw(g);
+					});
+				} else {
+					densityMap.draw(g, area, w, h);
+					for (Edge e : visited)
+						eToL.get(e).draw(g);
+				}
+			}
+		} finally {
+			g.dispose();
+		}
+	}
+
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
 
 		Graphics2D g2d= (Graphics2D) g;
-		g2d.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), null);
-
-		for (Planet p : nToP.values())
-			p.draw(g2d);
-		for (ConcurrentMap.Entry<Edge, Line> el : eToL.entrySet()) {
-			Line l= el.getValue();
-			l.setVisits(el.getKey().getVisits());
-			l.draw(g2d);
+		DrawableGrid<Planet> ps= planets;
+		DrawableGrid<Edge> ls= lines;
+		if (ps != null && ls != null) {
+			updateLayer(ps, ls);
+			g2d.drawImage(layer, 0, 0, null);
+		} else {
+			g2d.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), null);
 		}
 		if (ship != null)
 			ship.draw(g2d);
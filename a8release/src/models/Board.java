@@ -1,30 +1,33 @@
 package models;
 
 import generation.DelaunayTriangulation;
-import generation.UEdge;
 import util.Paths;
 import util.Util;
 
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Random;
 import java.awt.Point;
 import java.awt.geom.Point2D;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Deque;
-import java.util.HashMap;
 
 /** A Board represents the physical layout of a game: it tracks Nodes,
- * Edges, and size of the map. Boards are randomly generated from a seed. */
+ * Edges, and size of the map. Boards are randomly generated from a seed.
+ *
+ * A Board built with BoardBuilder.offHeap(true) keeps its Nodes and Edges
+ * outside the Java heap instead (see OffHeapGraph). Its Nodes and Edges are
+ * then created on demand, so they must be compared with equals rather than
+ * ==, except for earth() and target().
+ *
+ * Planets can be added to and removed from a Board kept on the heap (see
+ * addPlanet and removePlanet). Its Edges then change only around the planet,
+ * as the triangulation it was generated from does. */
 public class Board {
 
 	/* The seed given to a RNG to generate this Board. */
@@ -39,7 +42,21 @@ public class Board {
 	/* The distance of the Node furthest from the target. */
 	private double furthestNodeDistance;
 
-	/* The minimum traveled distance from Earth to the target. */
+	/* The signal strength at each Node, by ID (null if kept off the heap). */
+	private double[] signals;
+
+	/* The statuses of the neighbors of each Node, by ID, each created when
+	 * first asked for (null if the Nodes are kept off the heap). */
+	private NodeStatus[][] statuses;
+
+	/* If the Nodes are kept off the heap, the last Node whose neighbors'
+	 * statuses were asked for and those statuses (null otherwise). Only the
+	 * last are kept, so that a long search does not fill the heap. */
+	private Node statusNode;
+	private NodeStatus[] lastStatuses;
+
+	/* The minimum traveled distance from Earth to the target, or -1 if a
+	 * planet was added or removed since it was last computed. */
 	private int distanceToTarget;
 
 	/* The set of all Edges on this Board. */
@@ -48,67 +65,96 @@ public class Board {
 	/* The NodeProximityTree of all Nodes on this Board. */
 	private NodeProximityGrid nodes;
 
+	/* All Nodes on this Board, indexed by ID; the IDs of removed planets
+	 * and the spare room at the end are null. */
+	private Node[] byId;
+
+	/* The number of Nodes on this Board. */
+	private int nodeCount;
+
+	/* An unmodifiable view of all Nodes on this Board, in order of ID. */
+	private Set<Node> nodeSet;
+
+	/* The Nodes and Edges of this Board if they are kept off the heap, in
+	 * which case edges, nodes, and byId are null; otherwise null. */
+	private OffHeapGraph graph;
+
 	/* The dimensions of this Board, which is a rectangle. */
 	private int width;
 	private int height;
 
 	/* The total sum of the edge weights on this Board. */
-	private int sumEdges;
+	private long sumEdges;
+
+	/* The triangulation of the Nodes, whose vertex indices are Node IDs,
+	 * kept up to date as planets are added and removed (null until the first
+	 * planet is added or removed; see triangulation()). */
+	private DelaunayTriangulation dt;
 
 	/** Constructor: a rectangular Board generated via RNG with seed s. There
 	 * are many Board generation parameters here explained in the Builder. */
 	private Board(int w, int h, long s, int minNodes, int maxNodes, int minGems,
-		int maxGems) {
+		int maxGems, boolean offHeap, DelaunayTriangulation.Engine engine) {
 		width= w;
 		height= h;
 		seed= s;
 		Random r= new Random(s);
 		int np= r.nextInt(maxNodes - minNodes + 1) + minNodes;
-		DelaunayTriangulation dt= new DelaunayTriangulation(np, r, w, h);
-
-		// convert Points to Nodes, mapping each Point to its corresponding Node
-		HashMap<Point, Node> pToN = new HashMap<Point, Node>();
-		nodes= new NodeProximityGrid(0, 0, w, h);
-		Queue<String> names= planetNames(r); // shuffled list of planet names
-		int id= 0; // id of each planet
-		int targetId= r.nextInt(dt.getVertices().size() - 1) + 1;
-
-		for (Point p : dt.getVertices()) {
-			Node n= new Node.NodeBuilder().pos(p.x, p.y).name(names.peek()).id(id)
-				.gems(gems(r, minGems, maxGems)).build();
+		DelaunayTriangulation dt= new DelaunayTriangulation(np, r, w, h, engine);
+
+		// convert vertices to Nodes; a Node's ID is its vertex index
+		nodes= new NodeProximityGrid(0, 0, w, h, dt.vertexCount());
+		byId= new Node[dt.vertexCount()];
+		nodeCount= byId.length;
+		// shuffled planet names for all Nodes but Earth and the target
+		PlanetNames names= new PlanetNames(r, byId.length - 2);
+		int named= 0; // number of planet names used so far
+		int[] nameIndex= offHeap ? new int[byId.length] : null;
+		int targetId= r.nextInt(byId.length - 1) + 1;
+
+		for (int id= 0; id < byId.length; ++id) {
+			if (nameIndex != null) nameIndex[id]= named;
+			Node.NodeBuilder nb= new Node.NodeBuilder()
+				.pos(dt.vertexX(id), dt.vertexY(id)).id(id);
+			if (id == 0) nb.name(Util.EARTH_NAME);
+			else if (id == targetId) nb.name(Util.CRASHED_PLANET_NAME);
+			else nb.name(names, named++); // materialized only when needed
+			Node n= nb.gems(gems(r, minGems, maxGems)).build();
 			if (id == 0) {
-				n.name= Util.EARTH_NAME;
 				n.gems= 0;
 				earth= n;
 			} else if (id == targetId) {
-				n.name= Util.CRASHED_PLANET_NAME;
 				n.gems= 0;
 				target= n;
-			} else {
-				names.remove();
 			}
-			++id;
 			nodes.addNode(n);
-			pToN.put(p, n);
+			byId[id]= n;
 		}
 
-		// add the edges
-		edges= new HashSet<Edge>();
-		for (UEdge ue : dt.getEdges()) {
-			Node n1= pToN.get(ue.p1());
-			Node n2= pToN.get(ue.p2());
+		// add the edges, except an arbitrary amount removed while keeping
+		// connectivity. Sets get the capacity they grew to when they held every
+		// edge and edges were removed later (a HashSet grows until it is at most
+		// 3/4 full). Exits iterate in the same order as then; the edge set puts
+		// edges in the same buckets, but edges sharing a bucket are in order of
+		// index rather than the order the triangulation used to give them.
+		int[] exitCapacity= new int[byId.length];
+		BitSet trimmed= trimEdges(r, dt, exitCapacity);
+		for (int id= 0; id < byId.length; ++id)
+			byId[id].reserveExits(exitCapacity[id]);
+		edges= new HashSet<Edge>(Math.max(16, (4 * dt.edgeCount() + 2) / 3));
+		for (int k= 0; k < dt.edgeCount(); ++k) {
+			if (trimmed.get(k)) continue;
+			Node n1= byId[dt.edgeP1(k)];
+			Node n2= byId[dt.edgeP2(k)];
 			Edge e= new Edge(n1, n2);
 			n1.addExit(e);
 			n2.addExit(e);
 			edges.add(e);
 		}
 
-		// remove an arbitrary amount of edges, while keeping connectivity
-		trimEdges(r);
-
 		// set the furthest distance (needed for getPing)
 		double maxDistance= 0;
-		for (Node n : nodes) {
+		for (Node n : byId) {
 			double nodeDistance= absoluteDistanceToTarget(n);
 			if (nodeDistance > maxDistance)
 				maxDistance= nodeDistance;
@@ -116,102 +162,169 @@ public class Board {
 		furthestNodeDistance = maxDistance;
 		distanceToTarget = Paths.pathWeight(Paths.minPath(earth, target));
 
+		signals= new double[byId.length];
+		for (Node n : byId)
+			signals[n.id()]= 1.0 - absoluteDistanceToTarget(n) / furthestNodeDistance;
+		statuses= new NodeStatus[byId.length][];
+
 		sumEdges= sum();
+
+		if (offHeap) {
+			graph= new OffHeapGraph(byId, edges, earth, target, names, nameIndex,
+				signals);
+			earth= graph.earth();
+			target= graph.target();
+			edges= null;
+			nodes= null;
+			byId= null;
+			signals= null;
+			statuses= null;
+			nodeSet= graph.nodes();
+		} else {
+			nodeSet= new NodeSet();
+		}
 	}
 
 	/** Return the sum of the distances on all edges. */
-	private int sum() {
-		int sum= 0;
+	private long sum() {
+		long sum= 0;
 		for (Edge e : edges) {
 			sum= sum + e.length;
 		}
 		return sum;
 	}
 
-	/** Return the total sum of the edges on this Board. */
+	/** Return the total sum of the edges on this Board, or Integer.MAX_VALUE
+	 * if that sum is too large for an int. */
 	public int sumEdges() {
-		return sumEdges;
+		return (int) Math.min(sumEdges, Integer.MAX_VALUE);
 	}
 
-	/** Trim the current edge set, removing edges chosen by RNG r.
-	 * The graph will remain connected. */
-	private void trimEdges(Random r) {
-		class NEPair {
-			Node n;
-			Edge e;
-
-			public NEPair(Node node, Edge edge) {
-				n= node;
-				e= edge;
-			}
+	/** Return the indices of the edges of dt to trim, chosen by RNG r. The
+	 * graph will remain connected without them. Also set exitCapacity[i] to
+	 * the capacity of the exit set of the Node with ID i once it holds all
+	 * its edges, which determines the order in which that set iterates.
+	 *
+	 * Edges that are not needed to connect all Nodes are found by a depth-first
+	 * search from Earth that visits the exits of each Node in the order its
+	 * exit set iterates. Everything is done on edge indices and bitsets. */
+	private BitSet trimEdges(Random r, DelaunayTriangulation dt,
+		int[] exitCapacity) {
+		int n= exitCapacity.length;
+		int ne= dt.edgeCount();
+
+		// the exits of Node i are the edges exit[start[i]] .. exit[start[i+1]-1],
+		// first in the order they are added, then in the order they iterate
+		int[] start= new int[n + 1];
+		for (int k= 0; k < ne; ++k) {
+			++start[dt.edgeP1(k) + 1];
+			++start[dt.edgeP2(k) + 1];
+		}
+		for (int i= 0; i < n; ++i)
+			start[i + 1] += start[i];
+		int[] exit= new int[2 * ne];
+		int[] next= Arrays.copyOf(start, n);
+		int[] hash= new int[ne];
+		for (int k= 0; k < ne; ++k) {
+			int p1= dt.edgeP1(k);
+			int p2= dt.edgeP2(k);
+			exit[next[p1]++]= k;
+			exit[next[p2]++]= k;
+			hash[k]= 31 * (31 + p1) + p2; // Edge.hashCode, since Node IDs are hashes
 		}
-		/* Visited Nodes */
-		Set<Node> visited= new HashSet<Node>();
-
-		/* Nodes to visit and the Edge used to reach them */
-		Deque<NEPair> stack= new LinkedList<NEPair>();
-
-		/* Edges that could be removed */
-		ArrayList<Edge> candidates = new ArrayList<Edge>();
-
-		/* Edges that must be kept to maintain connectivity */
-		Set<Edge> keep= new HashSet<Edge>();
-		stack.push(new NEPair(earth, null));
-		while (!stack.isEmpty()) {
-			NEPair p= stack.pop();
-			if (visited.add(p.n)) {
-				keep.add(p.e);
-				for (Edge e : p.n.exits())
-					stack.push(new NEPair(e.getOther(p.n), e));
-			} else if (!keep.contains(p.e)) {
-				candidates.add(p.e);
+		for (int i= 0; i < n; ++i)
+			exitCapacity[i]= orderExits(exit, start[i], start[i + 1], hash);
+
+		/* Nodes to visit and the edge used to reach them (-1 for Earth) */
+		int[] stackNode= new int[2 * ne + 1];
+		int[] stackEdge= new int[2 * ne + 1];
+		int size= 0;
+
+		/* Visited Nodes and edges that must be kept to maintain connectivity */
+		BitSet visited= new BitSet(n);
+		BitSet keep= new BitSet(ne);
+
+		/* Edges that could be removed, some of them twice */
+		int[] candidates= new int[2 * ne];
+		int nc= 0;
+
+		stackNode[size]= earth.id();
+		stackEdge[size++]= -1;
+		while (size > 0) {
+			int u= stackNode[--size];
+			int e= stackEdge[size];
+			if (!visited.get(u)) {
+				visited.set(u);
+				if (e >= 0) keep.set(e);
+				for (int h= start[u]; h < start[u + 1]; ++h) {
+					int k= exit[h];
+					stackNode[size]= dt.edgeP1(k) == u ? dt.edgeP2(k) : dt.edgeP1(k);
+					stackEdge[size++]= k;
+				}
+			} else if (!keep.get(e)) {
+				candidates[nc++]= e;
 			}
 		}
 
 		// randomly trim some candidate edges
-		int iterations= r.nextInt(candidates.size());
+		BitSet trimmed= new BitSet(ne);
+		int iterations= nc > 0 ? r.nextInt(nc) : 0;
 		for (int count= 0; count < iterations; ++count) {
-			int end= candidates.size() - 1;
-			int index= r.nextInt(candidates.size());
-			Edge trim= candidates.get(index);
-			candidates.set(index, candidates.get(end));
-			candidates.remove(end);
-			trim.firstExit().removeExit(trim);
-			trim.secondExit().removeExit(trim);
-			edges.remove(trim);
+			int index= r.nextInt(nc);
+			trimmed.set(candidates[index]);
+			candidates[index]= candidates[--nc];
 		}
+		return trimmed;
 	}
 
-	/* Location of files for board generation */
-	private static final String BOARD_GENERATION_DIRECTORY = Util.DIRECTORY
-		+ "/data/board_generation";
+	/** Sort the edges exit[from] .. exit[to-1], which are added to a
+	 * java.util.HashSet in that order, into the order in which the set
+	 * iterates, and return the capacity of the set. hash[k] is the hash code
+	 * of edge k.
+	 *
+	 * A set iterates its buckets in order, and the elements of a bucket in
+	 * the order they were added. It doubles its capacity when it is 3/4 full,
+	 * and when a bucket of a small table gets 9 elements. (Beyond that, it
+	 * turns large buckets into trees, which used to iterate in an order
+	 * depending on identity hash codes; here they keep insertion order.) */
+	private static int orderExits(int[] exit, int from, int to, int[] hash) {
+		int capacity= 16; // HashMap's default table size and load factor
+		for (int i= from; i < to; ++i) {
+			if (capacity < 64 && bucketSize(exit, from, i, hash, capacity) >= 9)
+				capacity <<= 1;
+			if (i + 1 - from > capacity / 4 * 3)
+				capacity <<= 1;
+		}
 
-	/** Return the planet names listed in planets.txt, shuffled to a
-	 * random order using RNG r.
-	 * 
-	 * Precondition: planets.txt is in BOARD_GENERATION_DIRECTORY. */
-	private static Queue<String> planetNames(Random r) {
-		File f= new File(BOARD_GENERATION_DIRECTORY + "/planets.txt");
-		BufferedReader reader;
-		try {
-			reader= new BufferedReader(new FileReader(f));
-		} catch (FileNotFoundException e) {
-			throw new UncheckedIOException("Cannot find planets.txt", e);
-		}
-		LinkedList<String> names= new LinkedList<String>();
-		try {
-			String line;
-			while ((line= reader.readLine()) != null) {
-				// Strip non-ascii or null characters out of string
-				line= line.replaceAll("[\uFEFF-\uFFFF \u0000]", "");
-				names.add(line);
-			}
-			reader.close();
-		} catch (IOException e) {
-			throw new UncheckedIOException("Error reading planets.txt", e);
+		// stable insertion sort by bucket
+		for (int i= from + 1; i < to; ++i) {
+			int k= exit[i];
+			int b= bucket(hash[k], capacity);
+			int j= i;
+			for (; j > from && bucket(hash[exit[j - 1]], capacity) > b; --j)
+				exit[j]= exit[j - 1];
+			exit[j]= k;
+		}
+		return capacity;
+	}
+
+	/** Return the number of edges exit[from] .. exit[i] in the bucket of edge
+	 * exit[i] in a table with the given capacity. */
+	private static int bucketSize(int[] exit, int from, int i, int[] hash,
+		int capacity) {
+		int b= bucket(hash[exit[i]], capacity);
+		int count= 0;
+		for (int j= from; j <= i; ++j) {
+			if (bucket(hash[exit[j]], capacity) == b)
+				++count;
 		}
-		Collections.shuffle(names, r);
-		return names;
+		return count;
+	}
+
+	/** Return the bucket of an element with hash code h in a
+	 * java.util.HashMap with the given capacity. */
+	private static int bucket(int h, int capacity) {
+		return (h ^ (h >>> 16)) & (capacity - 1);
 	}
 
 	/** Return a random amount of gems set by the constraints min and max.
@@ -231,9 +344,36 @@ public class Board {
 	 * inversely correlated with the distance between n and the target planet.
 	 * 
 	 * The returned value d satisfies 0 <= d <= 1. If d = 1, n is the target
-	 * node. If d = 0, n is the node furthest from the target node. */
+	 * node. If d = 0, n is the node furthest from the target node.
+	 * Precondition: n is a Node of this Board. */
 	public double signal(Node n) {
-		return 1.0 - absoluteDistanceToTarget(n) / furthestNodeDistance;
+		return graph != null ? graph.signal(n.id()) : signals[n.id()];
+	}
+
+	/** Return the statuses of the neighbors of n, in the order in which
+	 * n.neighbors() iterates them. The array is created the first time it is
+	 * asked for and shared after that (off the heap, only until the statuses
+	 * of another Node are asked for), so it must not be modified.
+	 * Precondition: n is a Node of this Board. */
+	synchronized NodeStatus[] neighborStatus(Node n) {
+		NodeStatus[] ns= graph == null ? statuses[n.id()]
+			: n.equals(statusNode) ? lastStatuses : null;
+		if (ns == null) {
+			Set<Node> neighbors= n.neighbors().keySet();
+			ns= new NodeStatus[neighbors.size()];
+			int i= 0;
+			for (Node m : neighbors) {
+				ns[i]= new NodeStatus(m.id(), m.name(), signal(m));
+				++i;
+			}
+			if (graph != null) {
+				statusNode= n;
+				lastStatuses= ns;
+			} else {
+				statuses[n.id()]= ns;
+			}
+		}
+		return ns;
 	}
 
 	/** Return the absolute distance from n to the target. */
@@ -241,27 +381,96 @@ public class Board {
 		return Util.distance(n.x(), n.y(), target.x(), target.y());
 	}
 
-	/** Return an Iterable containing all the Nodes in this board.
-	 * Do NOT modify this Iterable or its elements in any way.*/
-	public Iterable<Node> nodes() {
-		return nodes;
+	/** Return an unmodifiable Set of all the Nodes in this board, in order
+	 * of ID. It is the same Set on every call, and reflects planets added and
+	 * removed, so do not iterate over it while they are.
+	 * Do NOT modify the elements of this Set in any way. */
+	public Set<Node> nodes() {
+		return nodeSet;
 	}
 
 	/** Return the closest Node to the given Point, or null if
-	 * there are no Nodes. */
+	 * there are no Nodes. This takes time linear in the number of Nodes if
+	 * they are kept off the heap. */
 	public Node closestNode(Point2D p) {
-		return nodes.closestNode(p);
+		if (graph == null)
+			return nodes.closestNode(p);
+
+		int closest= -1;
+		double min= Double.POSITIVE_INFINITY;
+		for (int id= 0; id < graph.nodeCount(); ++id) {
+			double d= p.distanceSq(graph.x(id), graph.y(id));
+			if (d < min) {
+				min= d;
+				closest= id;
+			}
+		}
+		return closest < 0 ? null : graph.node(closest);
+	}
+
+	/** Store in out the out.length Nodes closest to p (or all Nodes, if there
+	 * are fewer), from the closest, with Nodes at the same distance ordered
+	 * by ID, store the square of the distance from p to out[i] in distSq[i],
+	 * and return the number of Nodes stored. This takes time linear in the
+	 * number of Nodes if they are kept off the heap.
+	 * Precondition: distSq.length >= out.length. */
+	public int closestNodes(Point2D p, Node[] out, double[] distSq) {
+		if (graph == null)
+			return nodes.closestNodes(p, out, distSq);
+
+		int size= 0, k= out.length;
+		for (int id= 0; id < graph.nodeCount(); ++id) {
+			double d= p.distanceSq(graph.x(id), graph.y(id));
+			if (size < k || d <= distSq[k - 1])
+				size= NodeProximityGrid.offer(graph.node(id), d, out, distSq, size);
+		}
+		return size;
+	}
+
+	/** Store in out the Nodes in the rectangle [x0, x1] x [y0, y1], in no
+	 * particular order, and return their number. If out is too small, only
+	 * the first out.length are stored, but all are counted. This takes time
+	 * linear in the number of Nodes if they are kept off the heap. */
+	public int nodesInRectangle(double x0, double y0, double x1, double y1,
+		Node[] out) {
+		if (graph == null)
+			return nodes.nodesInRectangle(x0, y0, x1, y1, out);
+
+		int n= 0;
+		for (int id= 0; id < graph.nodeCount(); ++id) {
+			int x= graph.x(id), y= graph.y(id);
+			if (x >= x0 && x <= x1 && y >= y0 && y <= y1) {
+				if (n < out.length) out[n]= graph.node(id);
+				++n;
+			}
+		}
+		return n;
+	}
+
+	/** Store in out the Nodes at distance at most r from p, in no particular
+	 * order, and return their number. If out is too small, only the first
+	 * out.length are stored, but all are counted. This takes time linear in
+	 * the number of Nodes if they are kept off the heap. */
+	public int nodesInCircle(Point2D p, double r, Node[] out) {
+		if (graph == null)
+			return nodes.nodesInCircle(p, r, out);
+
+		int n= 0;
+		for (int id= 0; id < graph.nodeCount(); ++id) {
+			if (p.distanceSq(graph.x(id), graph.y(id)) <= r * r) {
+				if (n < out.length) out[n]= graph.node(id);
+				++n;
+			}
+		}
+		return n;
 	}
 
 	/** Return the Node with ID id in this board if it exists,
 	 * null otherwise. */
 	public Node getNode(int id) {
-		for (Node n : nodes) {
-			if (n.id() == id)
-				return n;
-		}
-
-		return null;
+		if (graph != null)
+			return id >= 0 && id < graph.nodeCount() ? graph.node(id) : null;
+		return id >= 0 && id < byId.length ? byId[id] : null;
 	}
 
 	/** Return the starting Earth Node. */
@@ -276,7 +485,7 @@ public class Board {
 
 	/** Return an unmodifiable Set of Edges in this board. */
 	public Set<Edge> edges() {
-		return Collections.unmodifiableSet(edges);
+		return graph != null ? graph.edges() : Collections.unmodifiableSet(edges);
 	}
 
 	/** Return the distance from the target Node to its furthest Node. */
@@ -295,12 +504,277 @@ public class Board {
 	}
 
 	/** Return the min traveled distance between the target and Earth. */
-	public int distanceToTarget() {
+	public synchronized int distanceToTarget() {
+		if (distanceToTarget < 0)
+			distanceToTarget= Paths.pathWeight(Paths.minPath(earth, target));
 		return distanceToTarget;
 	}
 
+	/** Add a planet with the given name and gems at (x, y), and return its
+	 * Node, or return null if there is already a Node at (x, y). The new Node
+	 * gets the next unused ID. Edges are added from it to all its neighbors in
+	 * the triangulation, and Edges the triangulation loses are removed, so the
+	 * Board stays connected. This takes expected constant time, except that
+	 * all signals are computed again if the new Node is further from the
+	 * target than all others; distanceToTarget() is computed again the next
+	 * time it is called.
+	 * Throw an IllegalArgumentException if (x, y) is outside this Board, and
+	 * an UnsupportedOperationException if its Nodes are kept off the heap. */
+	public synchronized Node addPlanet(int x, int y, String name, int gems) {
+		if (graph != null)
+			throw new UnsupportedOperationException("Nodes are kept off the heap");
+		if (x < 0 || x > width || y < 0 || y > height)
+			throw new IllegalArgumentException("(" + x + ", " + y
+				+ ") is outside the board");
+
+		Node near= nodes.closestNode(new Point2D.Double(x, y));
+		DelaunayTriangulation.Change c= triangulation().insert(x, y, near.id());
+		if (c == null) return null;
+
+		int id= c.vertex();
+		if (id >= byId.length) {
+			int length= Math.max(2 * byId.length, id + 1);
+			byId= Arrays.copyOf(byId, length);
+			signals= Arrays.copyOf(signals, length);
+			statuses= Arrays.copyOf(statuses, length);
+		}
+		Node n= new Node.NodeBuilder().pos(x, y).id(id).name(name).gems(gems)
+			.build();
+		byId[id]= n;
+		++nodeCount;
+		nodes.addNode(n);
+
+		for (int k= 0; k < c.removedCount(); ++k) {
+			Edge e= byId[c.removedP1(k)].getEdge(byId[c.removedP2(k)]);
+			if (e != null) removeEdge(e);
+		}
+		for (int k= 0; k < c.addedCount(); ++k)
+			addEdge(byId[c.addedP1(k)], byId[c.addedP2(k)]);
+
+		double d= absoluteDistanceToTarget(n);
+		if (d > furthestNodeDistance) {
+			furthestNodeDistance= d;
+			resetSignals();
+		} else {
+			signals[id]= 1.0 - d / furthestNodeDistance;
+		}
+		distanceToTarget= -1;
+		return n;
+	}
+
+	/** Remove the planet of Node n, with its Edges. Edges the triangulation
+	 * gains are added, as are the Edges between consecutive neighbors of n in
+	 * the triangulation, so the Board stays connected. This takes expected
+	 * constant time, except that all signals are computed again if n was the
+	 * Node furthest from the target, and connecting n's neighbors can take
+	 * linear time if n lies on the hull of the Nodes; distanceToTarget() is
+	 * computed again the next time it is called.
+	 * Throw an IllegalArgumentException if n is Earth, the target, or not a
+	 * Node of this Board, and an UnsupportedOperationException if the Nodes
+	 * are kept off the heap. */
+	public synchronized void removePlanet(Node n) {
+		if (graph != null)
+			throw new UnsupportedOperationException("Nodes are kept off the heap");
+		if (n == earth || n == target)
+			throw new IllegalArgumentException("cannot remove " + n.name());
+		int id= n.id();
+		if (getNode(id) != n)
+			throw new IllegalArgumentException(n + " is not on this board");
+
+		int[] ring= triangulation().neighbors(id);
+		DelaunayTriangulation.Change c= dt.remove(id);
+		for (Edge e : new ArrayList<>(n.exits()))
+			removeEdge(e);
+		nodes.removeNode(n);
+		byId[id]= null;
+		--nodeCount;
+		statuses[id]= null;
+
+		for (int k= 0; k < c.addedCount(); ++k)
+			addEdge(byId[c.addedP1(k)], byId[c.addedP2(k)]);
+		for (int k= 0; k < ring.length; ++k) {
+			int u= ring[k], v= ring[(k + 1) % ring.length];
+			if (u >= 0 && v >= 0 && byId[u].getEdge(byId[v]) == null)
+				addEdge(byId[u], byId[v]);
+		}
+		connect(ring);
+
+		if (absoluteDistanceToTarget(n) >= furthestNodeDistance) {
+			furthestNodeDistance= 0;
+			for (Node m : byId) {
+				if (m != null)
+					furthestNodeDistance= Math.max(furthestNodeDistance,
+						absoluteDistanceToTarget(m));
+			}
+			resetSignals();
+		}
+		distanceToTarget= -1;
+	}
+
+	/** Return the triangulation of the Nodes, building it if this is the
+	 * first change to them. Until then no Node has been removed, so the IDs
+	 * are 0 .. byId.length - 1, and the Nodes are triangulated within the
+	 * same bounding triangle as when this Board was generated, which gives
+	 * the same triangulation.
+	 * Precondition: the Nodes are kept on the heap. */
+	private DelaunayTriangulation triangulation() {
+		if (dt == null) {
+			int[] xs= new int[byId.length];
+			int[] ys= new int[byId.length];
+			for (int id= 0; id < byId.length; ++id) {
+				xs[id]= byId[id].x();
+				ys[id]= byId[id].y();
+			}
+			dt= new DelaunayTriangulation(xs, ys, byId.length, new Point(0, 0),
+				new Point(width, height));
+		}
+		return dt;
+	}
+
+	/** Join the Nodes with IDs in ring, the neighbors of a removed Node in
+	 * counterclockwise order with -1 for corners of the bounding triangle.
+	 * Consecutive Nodes of ring are already joined by Edges, but corners split
+	 * ring into runs if the removed Node lay on the hull. Those are joined by
+	 * shortest paths in the triangulation, found by a breadth-first search
+	 * from the first run, whose missing Edges are added. */
+	private void connect(int[] ring) {
+		// run[k] is the run of ring[k], numbered from 1 (0 for a corner)
+		int first= 0;
+		while (ring[first] >= 0)
+			if (++first == ring.length) return; // no corners: a single run
+		int[] run= new int[ring.length];
+		int runs= 0;
+		for (int k= 1; k <= ring.length; ++k) {
+			int i= (first + k) % ring.length;
+			if (ring[i] < 0) continue;
+			if (ring[(first + k - 1) % ring.length] < 0) ++runs;
+			run[i]= runs;
+		}
+		if (runs < 2) return;
+
+		// parent[id] is the Node before id on its path from a joined run: -1
+		// if id is in a joined run, and -2 if the search has not reached id
+		int[] parent= new int[byId.length];
+		Arrays.fill(parent, -2);
+		int[] queue= new int[byId.length];
+		int head= 0, tail= 0;
+		BitSet joined= new BitSet(runs + 1);
+		joined.set(1);
+		for (int k= 0; k < ring.length; ++k) {
+			if (run[k] == 1) {
+				parent[ring[k]]= -1;
+				queue[tail++]= ring[k];
+			}
+		}
+		while (joined.cardinality() < runs) {
+			int u= queue[head++];
+			for (int v : dt.neighbors(u)) {
+				if (v < 0 || parent[v] != -2) continue;
+				parent[v]= u;
+				queue[tail++]= v;
+				int r= 0;
+				for (int k= 0; k < ring.length; ++k)
+					if (ring[k] == v) r= run[k];
+				if (r == 0 || joined.get(r)) continue;
+
+				// add the path to v, and search on from the rest of v's run
+				for (int w= v; parent[w] >= 0; w= parent[w]) {
+					Node a= byId[w], b= byId[parent[w]];
+					if (a.getEdge(b) == null) addEdge(a, b);
+				}
+				joined.set(r);
+				for (int k= 0; k < ring.length; ++k) {
+					if (run[k] == r && parent[ring[k]] == -2) {
+						parent[ring[k]]= -1;
+						queue[tail++]= ring[k];
+					}
+				}
+			}
+		}
+	}
+
+	/** Add an Edge between a and b. */
+	private void addEdge(Node a, Node b) {
+		Edge e= new Edge(a, b);
+		a.addExit(e);
+		b.addExit(e);
+		edges.add(e);
+		sumEdges += e.length;
+		statuses[a.id()]= null;
+		statuses[b.id()]= null;
+	}
+
+	/** Remove Edge e. */
+	private void removeEdge(Edge e) {
+		Node a= e.firstExit(), b= e.secondExit();
+		a.removeExit(e);
+		b.removeExit(e);
+		edges.remove(e);
+		sumEdges -= e.length;
+		statuses[a.id()]= null;
+		statuses[b.id()]= null;
+	}
+
+	/** Compute the signal at every Node again from furthestNodeDistance, and
+	 * forget the neighbor statuses, which hold the signals. */
+	private void resetSignals() {
+		for (Node m : byId) {
+			if (m != null)
+				signals[m.id()]= 1.0 - absoluteDistanceToTarget(m)
+					/ furthestNodeDistance;
+		}
+		Arrays.fill(statuses, null);
+	}
+
+	/** An unmodifiable view of the Nodes of a Board kept on the heap, in
+	 * order of ID, read from byId as it changes. */
+	private class NodeSet extends AbstractSet<Node> {
+
+		@Override public Iterator<Node> iterator() {
+			return new Iterator<Node>() {
+				/* The ID of the next Node, or byId.length if there is none. */
+				private int next= skip(0);
+
+				@Override public boolean hasNext() {
+					return next < byId.length;
+				}
+
+				@Override public Node next() {
+					if (!hasNext()) throw new NoSuchElementException();
+					Node n= byId[next];
+					next= skip(next + 1);
+					return n;
+				}
+			};
+		}
+
+		/** Return the least ID at least id of a Node, or byId.length. */
+		private int skip(int id) {
+			while (id < byId.length && byId[id] == null)
+				++id;
+			return id;
+		}
+
+		@Override public boolean contains(Object ob) {
+			return ob instanceof Node && ob.equals(getNode(((Node) ob).id()));
+		}
+
+		@Override public int size() {
+			return nodeCount;
+		}
+	}
+
+	/** The largest width or height of a Board. Generation works with
+	 * coordinates up to 3 times this in magnitude, so it must fit an int with
+	 * room to spare. */
+	public static final int MAX_SIZE= 1 << 28;
+
 	/** An instance builds a Board with the appropriate parameters.
-	 * It will refuse to build if a parameter is unset. */
+	 * It will refuse to build if a parameter is unset.
+	 *
+	 * Boards may be as large as MAX_SIZE x MAX_SIZE and have millions of
+	 * Nodes; generation time and memory grow about linearly with the
+	 * number of Nodes. */
 	public static class BoardBuilder {
 
 		/* The parameters needed to build a Board */
@@ -308,9 +782,16 @@ public class Board {
 		private Long seed;
 		private Integer minNodes, maxNodes;
 		private Integer minGems, maxGems;
+		private boolean offHeap;
+		private DelaunayTriangulation.Engine engine=
+			DelaunayTriangulation.Engine.HISTORY_DAG;
 
-		/** Set the dimensions (width x height) of this  Board. */
+		/** Set the dimensions (width x height) of this  Board.
+		 * Precondition: 0 < width, height <= MAX_SIZE. */
 		public BoardBuilder size(int width, int height) {
+			if (width <= 0 || height <= 0 || width > MAX_SIZE || height > MAX_SIZE)
+				throw new IllegalArgumentException(
+					"invalid Board size " + width + " x " + height);
 			this.width= width;
 			this.height= height;
 			return this;
@@ -322,8 +803,12 @@ public class Board {
 			return this;
 		}
 
-		/** Set the min and max number of Nodes on this Board. */
+		/** Set the min and max number of Nodes on this Board.
+		 * Precondition: 2 <= min <= max. */
 		public BoardBuilder nodeBounds(int min, int max) {
+			if (min < 2 || min > max)
+				throw new IllegalArgumentException(
+					"invalid Node bounds [" + min + ", " + max + "]");
 			minNodes= min;
 			maxNodes= max;
 			return this;
@@ -336,15 +821,40 @@ public class Board {
 			return this;
 		}
 
+		/** Set whether this Board keeps its Nodes and Edges off the Java heap
+		 * (default: false). This keeps the heap needed by a Board with millions
+		 * of Nodes small once it is built; the direct memory it needs instead
+		 * (at most about 120 bytes per Node) may have to be raised with
+		 * -XX:MaxDirectMemorySize. */
+		public BoardBuilder offHeap(boolean offHeap) {
+			this.offHeap= offHeap;
+			return this;
+		}
+
+		/** Set the engine that triangulates the Nodes of this Board (default:
+		 * HISTORY_DAG). Every engine places the same Nodes and connects them
+		 * the same way before trimming, but only the default trims the same
+		 * Edges as Boards always have, so other engines give a different Board
+		 * for the same seed. */
+		public BoardBuilder engine(DelaunayTriangulation.Engine engine) {
+			if (engine == null)
+				throw new IllegalArgumentException("null engine");
+			this.engine= engine;
+			return this;
+		}
+
 		/** Build this Board.
 		 * Precondition: all appropriate parameters have been set. */
 		public Board build() {
 			if (Util.anyNull(width, height, seed, minNodes, maxNodes, minGems,
 				maxGems))
 				throw new IllegalStateException("unset BoardBuilder params");
+			if ((long) (width + 1) * (height + 1) < maxNodes)
+				throw new IllegalStateException(
+					"Board too small for " + maxNodes + " Nodes");
 
 			return new Board(width, height, seed, minNodes, maxNodes, minGems,
-				maxGems);
+				maxGems, offHeap, engine);
 		}
 	}
 }
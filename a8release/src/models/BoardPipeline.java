@@ -0,0 +1,110 @@
+package models;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/** An instance generates the Boards for a fixed sequence of seeds ahead of
+ * time, on background threads, so that generating the next Board does not
+ * delay the game that needs it.
+ *
+ * Boards are handed out in the order of their seeds, no matter which thread
+ * finished first, and at most a bounded number of them are generated ahead of
+ * the consumer. Since a Board depends only on its seed, the Boards handed out
+ * are the same as if they had been generated one after another. */
+public class BoardPipeline {
+
+	/* The seeds of the Boards to generate, in the order they are handed out. */
+	private final long[] seeds;
+
+	/* The function used to generate the Board for a seed. */
+	private final LongFunction<Board> generator;
+
+	/* The maximum number of Boards generated ahead of the consumer. */
+	private final int lookahead;
+
+	/* The threads generating Boards. */
+	private final ExecutorService workers;
+
+	/* The Boards being generated, in seed order. Its size is <= lookahead. */
+	private final Queue<Future<Board>> ahead;
+
+	/* The number of seeds whose Boards have been submitted for generation. */
+	private int submitted;
+
+	/** Constructor: a pipeline generating the Boards for seeds, in order, via
+	 * generator, using the given number of threads and keeping at most
+	 * lookahead Boards ahead of the consumer.
+	 * Precondition: threads > 0, lookahead > 0, and generator may be called
+	 * concurrently from multiple threads. */
+	public BoardPipeline(long[] seeds, LongFunction<Board> generator,
+		int threads, int lookahead) {
+		if (threads <= 0 || lookahead <= 0)
+			throw new IllegalArgumentException("threads and lookahead must be > 0");
+
+		this.seeds= seeds.clone();
+		this.generator= generator;
+		this.lookahead= lookahead;
+		workers= Executors.newFixedThreadPool(threads, r -> {
+			Thread t= new Thread(r, "board-generator");
+			t.setDaemon(true); // never keep the program alive
+			return t;
+		});
+		ahead= new ArrayDeque<>(lookahead);
+		fill();
+	}
+
+	/** Submit seeds for generation until lookahead Boards are ahead of the
+	 * consumer or there are no seeds left. */
+	private void fill() {
+		while (ahead.size() < lookahead && submitted < seeds.length) {
+			long s= seeds[submitted];
+			ahead.add(workers.submit(() -> generator.apply(s)));
+			++submitted;
+		}
+	}
+
+	/** Return true iff there are Boards that have not been handed out yet. */
+	public synchronized boolean hasNext() {
+		return !ahead.isEmpty();
+	}
+
+	/** Return the Board for the next seed, waiting for it to be generated
+	 * if necessary. Throw an IllegalStateException if there are no seeds
+	 * left, or a RuntimeException if generating the Board failed. */
+	public synchronized Board next() {
+		if (ahead.isEmpty())
+			throw new IllegalStateException("no Boards left in this pipeline");
+
+		Future<Board> f= ahead.remove();
+		fill();
+
+		boolean interrupted= false;
+		try {
+			while (true) {
+				try {
+					return f.get();
+				} catch (InterruptedException e) {
+					interrupted= true;
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException)
+						throw (RuntimeException) e.getCause();
+					throw new IllegalStateException("failed to generate Board", e);
+				}
+			}
+		} finally {
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Stop generating Boards. Boards that have not been handed out
+	 * are discarded. */
+	public synchronized void shutdown() {
+		workers.shutdownNow();
+		ahead.clear();
+	}
+}
@@ -22,8 +22,15 @@ public class Edge implements BoardElement {
     private int visits; // The number of times this Edge has been visited.
 
     /** Constructor: An edge with end nodes n1 and n2.
-     * Precondition: n1 and n2 are non-null, non-equal Nodes. length > 0. */
+     * Precondition: n1 and n2 are non-null, non-equal Nodes. */
     Edge(Node n1, Node n2) {
+        this(n1, n2, lengthBetween(n1, n2));
+    }
+
+    /** Constructor: An edge with end nodes n1 and n2 and the given length,
+     * which must be the length Edge(n1, n2) would compute.
+     * Precondition: n1 and n2 are non-null, non-equal Nodes. length > 0. */
+    Edge(Node n1, Node n2, int length) {
         if (n1 == null)
             throw new IllegalArgumentException("null Node n1");
         if (n2 == null)
@@ -33,12 +40,18 @@ public class Edge implements BoardElement {
 
         exits[0]= n1;
         exits[1]= n2;
-        
-        double d= Util.distance(n1.x(), n1.y(), n2.x(), n2.y()) + 0.5;
-        length= d <= 1 ? 1 : (int) d;
+        this.length= length;
         visits= 0;
     }
 
+    /** Return the rounded distance between n1 and n2, but at least 1, or 1
+     * if either is null. */
+    private static int lengthBetween(Node n1, Node n2) {
+        if (n1 == null || n2 == null) return 1;
+        double d= Util.distance(n1.x(), n1.y(), n2.x(), n2.y()) + 0.5;
+        return d <= 1 ? 1 : (int) d;
+    }
+
     /** Return the first exit of this Edge.
      * The order of exits is arbitrary. */
     public Node firstExit() {
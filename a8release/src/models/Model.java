@@ -9,7 +9,7 @@ public interface Model {
 	/** Return the seed used to generate this game. */
 	public long seed();
 
-	/** Return a Set of all Nodes in this game. */
+	/** Return an unmodifiable Set of all Nodes in this game. */
 	public Set<Node> nodes();
 
 	/** Return a Set of all Edges in this game. */
@@ -53,6 +53,15 @@ public interface Model {
 	/** Return the current score of this game. */
 	public int score();
 
+	/** Return the number of times the ship has set out along an Edge. */
+	public int departures();
+
+	/** Return the Edge along which the ship set out the k-th time, counting
+	 * from 0. The number of visits of the Edges only changes when the ship
+	 * sets out, so a view can keep up with them by reading new departures.
+	 * Precondition: 0 <= k < departures(). */
+	public Edge departure(int k);
+
 	/** Return true iff the search phase ended successfully. */
 	public boolean searchSucceeded();
 
@@ -10,25 +10,37 @@ import util.Util;
  * 3. the amount of gems on the planet and the rate at which they are lost.
  */
 public class Node implements BoardElement {
-	String name; // Name of this planet 
+	String name; // Name of this planet, or null if it is taken from names
+	private PlanetNames names; // The names this planet's name is taken from
+	private int nameIndex; // The index of this planet's name in names
 	private final int id; // Unique identifier for this planet
 	private int x, y; // Logical x, y coordinates of this Node
 
 	int gems; // Current amount of gems on this planet; always >= 0
 	private HashSet<Edge> exits; // Edges leaving this Node
 
-	/** Constructor: a Node named name with ID id with no edges
-	 * leaving it, the given x and y coordinates, speed modifier sm, initial
-	 * amount of gems g, and loss rate lr. */
-	private Node(int x, int y, String name, int id, int g) {
+	/** Constructor: a Node named name (or, if name is null, named by the k-th
+	 * name of names) with ID id with no edges leaving it, the given x and y
+	 * coordinates, and initial amount of gems g. */
+	private Node(int x, int y, String name, PlanetNames names, int k, int id,
+		int g) {
 		this.x= x;
 		this.y= y;
 		this.name= name;
+		this.names= names;
+		nameIndex= k;
 		this.id= id;
 		gems= g;
 		exits= new HashSet<Edge>();
 	}
 
+	/** Constructor: a Node with ID id whose state is kept elsewhere. Such a
+	 * subclass must override exits(), gems(), takeGems(), name(), x(), and y(),
+	 * which all other methods use to reach that state. */
+	Node(int id) {
+		this.id= id;
+	}
+
 	/**
 	 * Return an immutable set of edges leaving this node.
 	 */
@@ -50,12 +62,18 @@ public class Node implements BoardElement {
 	 * connecting them to this Node. */
 	public HashMap<Node, Integer> neighbors() {
 		HashMap<Node, Integer> neighbors= new HashMap<>();
-		for (Edge e : exits) {
+		for (Edge e : exits()) {
 			neighbors.put(e.getOther(this), e.length);
 		}
 		return neighbors;
 	}
 
+	/** Replace this Node's empty set of exits by one with the given capacity,
+	 * which must be large enough for all exits added to it. */
+	void reserveExits(int capacity) {
+		exits= new HashSet<Edge>(capacity);
+	}
+
 	/** Add e to this Node's set of exits. */
 	void addExit(Edge e) {
 		exits.add(e);
@@ -68,7 +86,7 @@ public class Node implements BoardElement {
 
 	/** Return true iff r is connected to this Node. */
 	public boolean isExit(Edge r) {
-		return exits.contains(r);
+		return exits().contains(r);
 	}
 
 	/** Return false if other.equals(this). Otherwise, return true iff
@@ -77,7 +95,7 @@ public class Node implements BoardElement {
 		if (other.equals(this))
 			return false;
 
-		for (Edge r : exits) {
+		for (Edge r : exits()) {
 			if (r.isExit(other))
 				return true;
 		}
@@ -87,7 +105,7 @@ public class Node implements BoardElement {
 	/** Return the edge that this Node shares with Node n, or null
 	 * if they are not connected. */
 	public Edge getEdge(Node n) {
-		for (Edge r : exits) {
+		for (Edge r : exits()) {
 			if (r.getOther(this).equals(n))
 				return r;
 		}
@@ -127,12 +145,15 @@ public class Node implements BoardElement {
 	/** Return a String containing the name and coordinates of this Node. */
 	@Override
 	public String toString() {
-		return String.format("%s: (%s, %s)", name, x, y);
+		return String.format("%s: (%s, %s)", name(), x(), y());
 	}
 
+	/** Return the name of this Node. Names taken from a Board's planet names
+	 * are only turned into a String when asked for, so that Boards nobody
+	 * displays do not hold a String per Node. */
 	@Override
 	public String name() {
-		return name;
+		return name != null ? name : names.get(nameIndex);
 	}
 
 	@Override
@@ -152,6 +173,8 @@ public class Node implements BoardElement {
 		/* The parameters needed to build a Node */
 		private Integer x, y;
 		private String name;
+		private PlanetNames names;
+		private int nameIndex;
 		private Integer id;
 		private Integer gems;
 
@@ -165,6 +188,16 @@ public class Node implements BoardElement {
 		/** Set the name of this Node to name and return the node. */
 		public NodeBuilder name(String name) {
 			this.name= name;
+			names= null;
+			return this;
+		}
+
+		/** Set the name of this Node to the k-th name of names and return
+		 * the node. */
+		public NodeBuilder name(PlanetNames names, int k) {
+			this.names= names;
+			nameIndex= k;
+			name= null;
 			return this;
 		}
 
@@ -185,10 +218,10 @@ public class Node implements BoardElement {
 		/** Build this Node.
 		 * Precondition: all appropriate parameters have been set. */
 		public Node build() {
-			if (Util.anyNull(x, y, name, id, gems))
+			if (Util.anyNull(x, y, id, gems) || name == null && names == null)
 				throw new IllegalStateException("unset NodeBuilder params");
 
-			return new Node(x, y, name, id, gems);
+			return new Node(x, y, name, names, nameIndex, id, gems);
 		}
 	}
 }
@@ -1,127 +1,350 @@
 package models;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.ArrayList;
-import java.util.List;
-
-import util.Util;
+import java.util.NoSuchElementException;
 
 import java.awt.geom.Point2D;
 
 /** An instance maintains Nodes in a 2D rectangle and can return the closest Node
  * to a given Point. It maintains an internal set of rectangles containing Nodes
- * based on their coordinates. */
+ * based on their coordinates.
+ *
+ * Each rectangle keeps its Nodes in an array, together with a packed array of
+ * their coordinates, so searching a rectangle compares squared distances of
+ * ints without touching the Nodes. Queries for several Nodes (the k closest,
+ * or all within a rectangle or circle) fill arrays given by the caller and
+ * allocate nothing. Given the number of Nodes, rectangles are sized to hold
+ * a couple of Nodes each, and resized as Nodes are added, so memory and the
+ * cost of a query follow the density of Nodes rather than the area. */
 public class NodeProximityGrid implements Iterable<Node> {
 
-	/* a 2D array(list) representing rectangles that contain a list of Nodes.
-	 * [0][0] is the bottom-left rectangle. rs will always have at least one
-	 * rectangle, and will always be rectangular (i.e. not ragged). */
-	private ArrayList<ArrayList<List<Node>>> rs;
+	/* The Nodes in each rectangle, in the order they were added, by rectangle
+	 * index row * cols + column; rectangle 0 is the bottom-left one. There is
+	 * always at least one rectangle. */
+	private Node[][] cells;
+
+	/* The coordinates of the Nodes of each rectangle: Node k of rectangle i
+	 * is at (coords[i][2k], coords[i][2k+1]). */
+	private int[][] coords;
+
+	/* The number of Nodes in each rectangle. */
+	private int[] counts;
+
+	/* The number of rows and columns of rectangles. */
+	private int rows, cols;
 
-	/* The dimensions of an individual rectangle. */
+	/* The dimensions of rectangles when the number of Nodes is not known. */
 	private static final int RECT_WIDTH= 64, RECT_HEIGHT= 64;
 
-	/* The minimum x- and y-values of this NodeProximitySet. */
-	private int x, y;
+	/* The most rectangles a grid has when the number of Nodes is not known.
+	 * Grids over larger areas use larger rectangles, so very large Boards
+	 * don't allocate billions of arrays. */
+	private static final int MAX_RECTS= 1 << 16;
+
+	/* The average number of Nodes per rectangle a grid is laid out for when
+	 * the number of Nodes is known. Fewer makes searches look at more empty
+	 * rectangles, more makes them compare more Nodes. */
+	private static final int NODES_PER_RECT= 2;
+
+	/* The number of Nodes a rectangle has room for when first used. */
+	private static final int CELL_CAPACITY= 4;
+
+	/* The dimensions of an individual rectangle in this grid. */
+	private int rectWidth, rectHeight;
+
+	/* The minimum x- and y-values and the dimensions of this
+	 * NodeProximityGrid. */
+	private final int x, y, width, height;
+
+	/* The number of Nodes in this grid, and the number it was last laid out
+	 * for (0 if the number was not known). The grid is laid out again when
+	 * size exceeds 4 * laidOutFor, so rectangles keep about NODES_PER_RECT
+	 * Nodes as Nodes are added. */
+	private int size, laidOutFor;
 
 	/** Constructor: a NodeProximityMap spanning the axis-aligned rectangle
-	 * with bottom-left coordinates (x, y) and the given dimensions. */
+	 * with bottom-left coordinates (x, y) and the given dimensions, with
+	 * rectangles of at least 64 x 64. */
 	public NodeProximityGrid(int x, int y, int width, int height) {
 		this.x= x;
 		this.y= y;
+		this.width= width;
+		this.height= height;
 
-		int w= width / RECT_WIDTH + 1;
-		int h= height / RECT_HEIGHT + 1;
-		rs= new ArrayList<>(h);
-		for (int i= 0; i < h; ++i) {
-			rs.add(new ArrayList<>(h));
-			for (int j= 0; j < w; ++j) {
-				rs.get(i).add(new LinkedList<Node>());
-			}
+		int rw= RECT_WIDTH;
+		int rh= RECT_HEIGHT;
+		while ((long) (width / rw + 1) * (height / rh + 1) > MAX_RECTS) {
+			rw *= 2;
+			rh *= 2;
 		}
+		layOut(rw, rh);
+	}
+
+	/** Constructor: a NodeProximityMap spanning the axis-aligned rectangle
+	 * with bottom-left coordinates (x, y) and the given dimensions, with
+	 * rectangles sized for about nodes Nodes spread evenly over it. */
+	public NodeProximityGrid(int x, int y, int width, int height, int nodes) {
+		this.x= x;
+		this.y= y;
+		this.width= width;
+		this.height= height;
+		int side= side(nodes);
+		layOut(side, side);
+		laidOutFor= Math.max(nodes, 1);
+	}
+
+	/** Return the side of square rectangles that hold NODES_PER_RECT of
+	 * nodes Nodes spread evenly over this grid, on average. */
+	private int side(int nodes) {
+		double area= (double) (width + 1) * (height + 1);
+		double side= Math.sqrt(area * NODES_PER_RECT / Math.max(nodes, 1));
+		return (int) Math.max(1, Math.min(Math.ceil(side),
+			Math.max(width, height) + 1));
+	}
+
+	/** Make this grid empty, with rectangles of rw x rh. */
+	private void layOut(int rw, int rh) {
+		rectWidth= rw;
+		rectHeight= rh;
+		cols= width / rectWidth + 1;
+		rows= height / rectHeight + 1;
+		cells= new Node[rows * cols][];
+		coords= new int[rows * cols][];
+		counts= new int[rows * cols];
+		size= 0;
+	}
+
+	/** Lay this grid out again for its size Nodes, keeping the Nodes. */
+	private void grow() {
+		Node[] ns= new Node[size];
+		int k= 0;
+		for (Node n : this)
+			ns[k++]= n;
+		int side= side(ns.length);
+		layOut(side, side);
+		laidOutFor= ns.length;
+		for (Node n : ns)
+			addNode(n);
 	}
 
 	/** Add Node n to this NodeProximityGrid.
 	 * Precondition: n is within the bounds of this NodeProximityGrid. */
 	public void addNode(Node n) {
-		int ri = (n.y() - y) / RECT_HEIGHT;
-		int rj = (n.x() - x) / RECT_WIDTH;
+		int i= cell(n);
+		int k= counts[i];
+		if (cells[i] == null) {
+			cells[i]= new Node[CELL_CAPACITY];
+			coords[i]= new int[2 * CELL_CAPACITY];
+		} else if (k == cells[i].length) {
+			cells[i]= Arrays.copyOf(cells[i], 2 * k);
+			coords[i]= Arrays.copyOf(coords[i], 4 * k);
+		}
+		cells[i][k]= n;
+		coords[i][2 * k]= n.x();
+		coords[i][2 * k + 1]= n.y();
+		counts[i]= k + 1;
+		if (++size > 4L * laidOutFor && laidOutFor > 0) grow();
+	}
 
-		rs.get(ri).get(rj).add(n);
+	/** Remove Node n from this NodeProximityGrid, if it is in it. */
+	public void removeNode(Node n) {
+		int i= cell(n);
+		Node[] ns= cells[i];
+		for (int k= 0; k < counts[i]; ++k) {
+			if (ns[k].equals(n)) {
+				int after= --counts[i] - k;
+				System.arraycopy(ns, k + 1, ns, k, after);
+				System.arraycopy(coords[i], 2 * k + 2, coords[i], 2 * k, 2 * after);
+				ns[counts[i]]= null;
+				--size;
+				return;
+			}
+		}
 	}
 
-	/** Return the closest Node to p.
+	/** Return the index of the rectangle containing Node n. */
+	private int cell(Node n) {
+		return (n.y() - y) / rectHeight * cols + (n.x() - x) / rectWidth;
+	}
+
+	/** Return the closest Node to p, or of the Nodes at the same distance from
+	 * p, the one with the least ID.
 	 * Precondition: this map is not empty. */
 	public Node closestNode(Point2D p) {
-		int ri= (int) (p.getY() - y) / RECT_HEIGHT;
-		int rj= (int) (p.getX() - x) / RECT_WIDTH;
-
-		if (ri >= rows())
-			ri= rows() - 1;
-		else if (ri < 0)
-			ri= 0;
-
-		if (rj >= cols())
-			rj= cols() - 1;
-		else if (rj < 0)
-			rj= 0;
-
-		Node n= closestOfList(rs.get(ri).get(rj), p);
-
-		int imin= ri - 1 >= 0 ? ri - 1 : 0;
-		int imax= ri + 1 < rows() ? ri + 1 : rows() - 1;
-		int jmin= rj - 1 >= 0 ? rj - 1 : 0;
-		int jmax= rj + 1 < cols() ? rj + 1 : cols() - 1;
-		do {
-			List<Node> ns= new LinkedList<Node>();
-			ns.add(n);
-			for (int i= imin; i <= imax; ++i) {
-				ns.add(closestOfList(rs.get(i).get(jmin), p));
-				ns.add(closestOfList(rs.get(i).get(jmax), p));
+		double px= p.getX(), py= p.getY();
+		int ri= clamp((int) Math.floor((py - y) / rectHeight), rows);
+		int rj= clamp((int) Math.floor((px - x) / rectWidth), cols);
+
+		// search rings of rectangles around (ri, rj) until no rectangle outside
+		// the searched square can hold a Node closer than the closest found
+		Node best= null;
+		double min= Double.POSITIVE_INFINITY;
+		for (int k= 0; ; ++k) {
+			int imin= ri - k, imax= ri + k, jmin= rj - k, jmax= rj + k;
+			for (int i= Math.max(imin, 0); i <= Math.min(imax, rows - 1); ++i) {
+				boolean edge= i == imin || i == imax;
+				int step= edge ? 1 : jmax - jmin;
+				for (int j= jmin; j <= jmax; j += Math.max(step, 1)) {
+					if (j < 0 || j >= cols) continue;
+					int c= i * cols + j;
+					int[] xy= coords[c];
+					for (int h= 0; h < counts[c]; ++h) {
+						double dx= xy[2 * h] - px, dy= xy[2 * h + 1] - py;
+						double d= dx * dx + dy * dy;
+						if (d < min || d == min && cells[c][h].id() < best.id()) {
+							min= d;
+							best= cells[c][h];
+						}
+					}
+				}
 			}
-			for (int j= jmin + 1; j < jmax; ++j) {
-				ns.add(closestOfList(rs.get(imin).get(j), p));
-				ns.add(closestOfList(rs.get(imax).get(j), p));
+
+			double reach= unsearched(px, py, imin, imax, jmin, jmax);
+			if (reach == Double.POSITIVE_INFINITY || best != null && reach > min)
+				return best;
+		}
+	}
+
+	/** Store in out the out.length Nodes closest to p (or all Nodes, if there
+	 * are fewer), from the closest, with Nodes at the same distance ordered
+	 * by ID, store the square of the distance from p to out[i] in distSq[i],
+	 * and return the number of Nodes stored.
+	 * Precondition: distSq.length >= out.length. */
+	public int closestNodes(Point2D p, Node[] out, double[] distSq) {
+		int k= out.length;
+		if (k == 0) return 0;
+		double px= p.getX(), py= p.getY();
+		int ri= clamp((int) Math.floor((py - y) / rectHeight), rows);
+		int rj= clamp((int) Math.floor((px - x) / rectWidth), cols);
+
+		int size= 0;
+		for (int r= 0; ; ++r) {
+			int imin= ri - r, imax= ri + r, jmin= rj - r, jmax= rj + r;
+			for (int i= Math.max(imin, 0); i <= Math.min(imax, rows - 1); ++i) {
+				boolean edge= i == imin || i == imax;
+				int step= edge ? 1 : jmax - jmin;
+				for (int j= jmin; j <= jmax; j += Math.max(step, 1)) {
+					if (j < 0 || j >= cols) continue;
+					int c= i * cols + j;
+					int[] xy= coords[c];
+					for (int h= 0; h < counts[c]; ++h) {
+						double dx= xy[2 * h] - px, dy= xy[2 * h + 1] - py;
+						size= offer(cells[c][h], dx * dx + dy * dy, out, distSq, size);
+					}
+				}
 			}
 
-			n= closestOfList(ns, p);
+			double reach= unsearched(px, py, imin, imax, jmin, jmax);
+			if (reach == Double.POSITIVE_INFINITY
+				|| size == k && reach > distSq[k - 1])
+				return size;
+		}
+	}
 
-			imin= imin - 1 >= 0 ? imin - 1 : imin;
-			imax= imax + 1 < rows() ? imax + 1 : imax;
-			jmin= jmin - 1 >= 0 ? jmin - 1 : jmin;
-			jmax= jmax + 1 < cols() ? jmax + 1 : jmax;
-		} while (n == null);
-		return n;
+	/** Offer Node n, at squared distance d from the point queried, to the
+	 * size closest Nodes found so far, held in out with their squared
+	 * distances in distSq (see closestNodes), and return the new size. */
+	static int offer(Node n, double d, Node[] out, double[] distSq, int size) {
+		int k= out.length;
+		if (size == k && (d > distSq[k - 1]
+			|| d == distSq[k - 1] && n.id() > out[k - 1].id()))
+			return size;
+
+		int i= size == k ? k - 1 : size;
+		for (; i > 0 && (distSq[i - 1] > d
+			|| distSq[i - 1] == d && out[i - 1].id() > n.id()); --i) {
+			out[i]= out[i - 1];
+			distSq[i]= distSq[i - 1];
+		}
+		out[i]= n;
+		distSq[i]= d;
+		return size == k ? k : size + 1;
 	}
 
-	/** Return the Node in ns closest to (x, y) or null if ns is null/empty. */
-	private static Node closestOfList(List<Node> ns, Point2D p) {
-		if (ns.isEmpty())
-			return null;
+	/** Store in out the Nodes in the rectangle [x0, x1] x [y0, y1], in the
+	 * order this NodeProximityGrid iterates, and return their number. If
+	 * out is too small, only the first out.length are stored, but all are
+	 * counted. */
+	public int nodesInRectangle(double x0, double y0, double x1, double y1,
+		Node[] out) {
+		int n= 0;
+		int imax= clamp((int) Math.floor((y1 - y) / rectHeight), rows);
+		int jmax= clamp((int) Math.floor((x1 - x) / rectWidth), cols);
+		for (int i= clamp((int) Math.floor((y0 - y) / rectHeight), rows);
+			i <= imax; ++i) {
+			for (int j= clamp((int) Math.floor((x0 - x) / rectWidth), cols);
+				j <= jmax; ++j) {
+				int c= i * cols + j;
+				int[] xy= coords[c];
+				for (int h= 0; h < counts[c]; ++h) {
+					int nx= xy[2 * h], ny= xy[2 * h + 1];
+					if (nx >= x0 && nx <= x1 && ny >= y0 && ny <= y1) {
+						if (n < out.length) out[n]= cells[c][h];
+						++n;
+					}
+				}
+			}
+		}
+		return n;
+	}
 
-		Node closest= ns.get(0);
-		double dist= Double.MAX_VALUE;
-		for (Node n : ns) {
-			if (n != null) {
-				double nDist = Util.distance(n.x(), n.y(), p.getX(), p.getY());
-				if (dist > nDist) {
-					dist= nDist;
-					closest= n;
+	/** Store in out the Nodes at distance at most r from p, in the order
+	 * this NodeProximityGrid iterates, and return their number. If out is
+	 * too small, only the first out.length are stored, but all are
+	 * counted. */
+	public int nodesInCircle(Point2D p, double r, Node[] out) {
+		double px= p.getX(), py= p.getY(), r2= r * r;
+		int n= 0;
+		int imax= clamp((int) Math.floor((py + r - y) / rectHeight), rows);
+		int jmax= clamp((int) Math.floor((px + r - x) / rectWidth), cols);
+		for (int i= clamp((int) Math.floor((py - r - y) / rectHeight), rows);
+			i <= imax; ++i) {
+			for (int j= clamp((int) Math.floor((px - r - x) / rectWidth), cols);
+				j <= jmax; ++j) {
+				int c= i * cols + j;
+				int[] xy= coords[c];
+				for (int h= 0; h < counts[c]; ++h) {
+					double dx= xy[2 * h] - px, dy= xy[2 * h + 1] - py;
+					if (dx * dx + dy * dy <= r2) {
+						if (n < out.length) out[n]= cells[c][h];
+						++n;
+					}
 				}
 			}
 		}
-		return closest;
+		return n;
+	}
+
+	/** Return the squared distance from (px, py) to the rectangles outside
+	 * rows [imin, imax] and columns [jmin, jmax], or infinity if there are
+	 * none. */
+	private double unsearched(double px, double py, int imin, int imax,
+		int jmin, int jmax) {
+		double reach= Double.POSITIVE_INFINITY;
+		if (imin > 0) reach= Math.min(reach, distanceSq(px, py, 0, 0, cols, imin));
+		if (imax < rows - 1)
+			reach= Math.min(reach, distanceSq(px, py, 0, imax + 1, cols, rows));
+		if (jmin > 0) reach= Math.min(reach, distanceSq(px, py, 0, 0, jmin, rows));
+		if (jmax < cols - 1)
+			reach= Math.min(reach, distanceSq(px, py, jmax + 1, 0, cols, rows));
+		return reach;
 	}
 
-	/** Return the number of rows in this grid. */
-	private int rows() {
-		return rs.size();
+	/** Return the squared distance from (px, py) to the rectangles in
+	 * columns [j0, j1) and rows [i0, i1). */
+	private double distanceSq(double px, double py, int j0, int i0, int j1,
+		int i1) {
+		double dx= Math.max(0, Math.max(x + (double) j0 * rectWidth - px,
+			px - (x + (double) j1 * rectWidth)));
+		double dy= Math.max(0, Math.max(y + (double) i0 * rectHeight - py,
+			py - (y + (double) i1 * rectHeight)));
+		return dx * dx + dy * dy;
 	}
 
-	/** Return the number of columns in this grid. */
-	private int cols() {
-		return rs.get(0).size();
+	/** Return i clamped to [0, n - 1]. */
+	private static int clamp(int i, int n) {
+		return i < 0 ? 0 : i >= n ? n - 1 : i;
 	}
 
 	@Override
@@ -129,50 +352,37 @@ public class NodeProximityGrid implements Iterable<Node> {
 		return new MapIterator();
 	}
 
-	/** An instance enumerates all Nodes in this NodeProximityGrid. */
+	/** An instance enumerates all Nodes in this NodeProximityGrid, by
+	 * rectangle, and in the order they were added within a rectangle. */
 	private class MapIterator implements Iterator<Node> {
 
-		/* The current index whose Nodes are being iterated. */
-		private int ri, rj;
+		/* The rectangle and index within it of the next Node. */
+		private int c, k;
 
-		/* The current iterator getting Nodes. */
-		private Iterator<Node> iter;
-
-		/** Constructor: a MapIterator starting at rs[0][0]. */
+		/** Constructor: a MapIterator starting at the first rectangle. */
 		public MapIterator() {
-			ri= 0;
-			rj= 0;
-			iter= rs.get(0).get(0).iterator();
-			ensureTotalEnumeration();
+			skipEmpty();
 		}
 
 		@Override
 		public boolean hasNext() {
-			return iter.hasNext();
+			return c < counts.length;
 		}
 
 		@Override
 		public Node next() {
-			Node n = iter.next();
-			ensureTotalEnumeration();
+			if (!hasNext()) throw new NoSuchElementException();
+			Node n= cells[c][k++];
+			skipEmpty();
 			return n;
 		}
 
-		/** Iff iter still has more elements, do nothing. Otherwise, cycle to
-		 * the next List's iterator until all Nodes have been enumerated. */
-		private void ensureTotalEnumeration() {
-			while (!iter.hasNext() && ri < rs.size()) {
-				++rj;
-				if (rj < cols()) {
-					iter= rs.get(ri).get(rj).iterator();
-				} else {
-					++ri;
-					if (ri < rows()) {
-						rj= 0;
-						iter = rs.get(ri).get(rj).iterator();
-					}
-				}
+		/** Move to the next Node, if the current rectangle has no more. */
+		private void skipEmpty() {
+			while (c < counts.length && k >= counts[c]) {
+				++c;
+				k= 0;
 			}
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,343 @@
+package models;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import util.Util;
+
+/** An instance holds the Nodes and Edges of a Board outside the Java heap,
+ * so that the heap a Board needs does not grow with its number of Nodes.
+ *
+ * Coordinates, gems, edge visits, and the adjacency lists (in compressed
+ * sparse row form) live in direct buffers. Nodes and Edges are flyweights
+ * created when asked for: two calls may return different but equal objects,
+ * so they must be compared with equals, not ==. Only Earth and the target
+ * are canonical, since the game compares them by identity.
+ *
+ * The state of the graph (its gems and visits) may only be changed while
+ * holding the lock of the Model that plays on it, just like a heap Board. */
+class OffHeapGraph {
+
+	/* The number of ints stored per Node and their offsets. */
+	private static final int NODE_INTS= 4;
+	private static final int X= 0, Y= 1, GEMS= 2, NAME= 3;
+
+	/* The number of ints stored per Edge and their offsets. */
+	private static final int EDGE_INTS= 4;
+	private static final int FIRST= 0, SECOND= 1, LENGTH= 2, VISITS= 3;
+
+	/* Values of a Node's NAME field for the two specially named Nodes; any
+	 * other value k means the k-th name of names. */
+	private static final int EARTH= -1, TARGET= -2;
+
+	/* The number of Nodes and Edges. */
+	private final int nodeCount, edgeCount;
+
+	/* NODE_INTS ints for each Node, by ID. */
+	private final IntBuffer nodeData;
+
+	/* The signal strength at each Node, by ID. */
+	private final DoubleBuffer signals;
+
+	/* EDGE_INTS ints for each Edge, by index. */
+	private final IntBuffer edgeData;
+
+	/* The exits of Node i are the Edges exitEdge[h] leading to Nodes
+	 * exitNode[h], for exitStart[i] <= h < exitStart[i+1]. */
+	private final IntBuffer exitStart, exitNode, exitEdge;
+
+	/* The shuffled planet names that the NAME fields refer to. */
+	private final PlanetNames names;
+
+	/* The canonical Earth and target Nodes. */
+	private final Node earth, target;
+
+	/** Constructor: a copy of the Nodes byId (indexed by ID) and the Edges
+	 * edges connecting them, where the Node with ID i was given the
+	 * nameIndex[i]-th name of names, except for Nodes earth and target, and
+	 * has signal strength signals[i].
+	 * Edges are numbered in the order edges iterates, and each Node's
+	 * exits iterate in the same order as they do now. */
+	OffHeapGraph(Node[] byId, Set<Edge> edges, Node earth, Node target,
+		PlanetNames names, int[] nameIndex, double[] signals) {
+		nodeCount= byId.length;
+		edgeCount= edges.size();
+		this.names= names;
+
+		nodeData= allocate((long) NODE_INTS * nodeCount);
+		for (Node n : byId) {
+			int i= NODE_INTS * n.id();
+			nodeData.put(i + X, n.x());
+			nodeData.put(i + Y, n.y());
+			nodeData.put(i + GEMS, n.gems());
+			nodeData.put(i + NAME, n == earth ? EARTH
+				: n == target ? TARGET : nameIndex[n.id()]);
+		}
+
+		this.signals= ByteBuffer.allocateDirect(Double.BYTES * nodeCount)
+			.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+		this.signals.put(signals);
+
+		edgeData= allocate((long) EDGE_INTS * edgeCount);
+		Map<Edge, Integer> index= new HashMap<>(2 * edgeCount);
+		for (Edge e : edges) {
+			int k= index.size();
+			index.put(e, k);
+			edgeData.put(EDGE_INTS * k + FIRST, e.firstExit().id());
+			edgeData.put(EDGE_INTS * k + SECOND, e.secondExit().id());
+			edgeData.put(EDGE_INTS * k + LENGTH, e.length);
+			edgeData.put(EDGE_INTS * k + VISITS, e.getVisits());
+		}
+
+		exitStart= allocate(nodeCount + 1L);
+		exitNode= allocate(2L * edgeCount);
+		exitEdge= allocate(2L * edgeCount);
+		int h= 0;
+		for (Node n : byId) {
+			exitStart.put(n.id(), h);
+			for (Edge e : n.exits()) {
+				exitNode.put(h, e.getOther(n).id());
+				exitEdge.put(h, index.get(e));
+				++h;
+			}
+		}
+		exitStart.put(nodeCount, h);
+
+		this.earth= new FlyweightNode(earth.id());
+		this.target= new FlyweightNode(target.id());
+	}
+
+	/** Return a direct buffer holding n ints, all 0.
+	 * Throw an IllegalArgumentException if n is too large for one buffer. */
+	private static IntBuffer allocate(long n) {
+		if (n > Integer.MAX_VALUE / Integer.BYTES)
+			throw new IllegalArgumentException("graph too large: " + n + " ints");
+		return ByteBuffer.allocateDirect((int) n * Integer.BYTES)
+			.order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+
+	/** Return the number of Nodes. */
+	int nodeCount() {
+		return nodeCount;
+	}
+
+	/** Return the number of Edges. */
+	int edgeCount() {
+		return edgeCount;
+	}
+
+	/** Return the Node with ID id.
+	 * Precondition: 0 <= id < nodeCount(). */
+	Node node(int id) {
+		if (id == earth.id()) return earth;
+		if (id == target.id()) return target;
+		return new FlyweightNode(id);
+	}
+
+	/** Return the Edge with index k.
+	 * Precondition: 0 <= k < edgeCount(). */
+	Edge edge(int k) {
+		int i= EDGE_INTS * k;
+		return new FlyweightEdge(k, node(edgeData.get(i + FIRST)),
+			node(edgeData.get(i + SECOND)), edgeData.get(i + LENGTH));
+	}
+
+	/** Return Earth. */
+	Node earth() {
+		return earth;
+	}
+
+	/** Return the target. */
+	Node target() {
+		return target;
+	}
+
+	/** Return the x coordinate of the Node with ID id. */
+	int x(int id) {
+		return nodeData.get(NODE_INTS * id + X);
+	}
+
+	/** Return the y coordinate of the Node with ID id. */
+	int y(int id) {
+		return nodeData.get(NODE_INTS * id + Y);
+	}
+
+	/** Return the signal strength at the Node with ID id. */
+	double signal(int id) {
+		return signals.get(id);
+	}
+
+	/** Return an immutable view of all Nodes, in order of ID. */
+	Set<Node> nodes() {
+		return new AbstractSet<Node>() {
+			@Override public Iterator<Node> iterator() {
+				return new Iterator<Node>() {
+					private int next= 0;
+
+					@Override public boolean hasNext() {
+						return next < nodeCount;
+					}
+
+					@Override public Node next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						return node(next++);
+					}
+				};
+			}
+
+			@Override public boolean contains(Object ob) {
+				if (!(ob instanceof FlyweightNode)) return false;
+				FlyweightNode n= (FlyweightNode) ob;
+				return n.graph() == OffHeapGraph.this;
+			}
+
+			@Override public int size() {
+				return nodeCount;
+			}
+		};
+	}
+
+	/** Return an immutable view of all Edges, in order of index. */
+	Set<Edge> edges() {
+		return new AbstractSet<Edge>() {
+			@Override public Iterator<Edge> iterator() {
+				return new Iterator<Edge>() {
+					private int next= 0;
+
+					@Override public boolean hasNext() {
+						return next < edgeCount;
+					}
+
+					@Override public Edge next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						return edge(next++);
+					}
+				};
+			}
+
+			@Override public boolean contains(Object ob) {
+				if (!(ob instanceof FlyweightEdge)) return false;
+				FlyweightEdge e= (FlyweightEdge) ob;
+				return e.graph() == OffHeapGraph.this;
+			}
+
+			@Override public int size() {
+				return edgeCount;
+			}
+		};
+	}
+
+	/** A Node whose state is kept in this graph. */
+	private class FlyweightNode extends Node {
+
+		/** Constructor: the Node with ID id. */
+		FlyweightNode(int id) {
+			super(id);
+		}
+
+		/** Return the graph this Node belongs to. */
+		OffHeapGraph graph() {
+			return OffHeapGraph.this;
+		}
+
+		@Override public Set<Edge> exits() {
+			int id= id();
+			return new AbstractSet<Edge>() {
+				@Override public Iterator<Edge> iterator() {
+					return new Iterator<Edge>() {
+						private int h= exitStart.get(id);
+
+						@Override public boolean hasNext() {
+							return h < exitStart.get(id + 1);
+						}
+
+						@Override public Edge next() {
+							if (!hasNext()) throw new NoSuchElementException();
+							int k= exitEdge.get(h++);
+							return edge(k);
+						}
+					};
+				}
+
+				@Override public int size() {
+					return exitStart.get(id + 1) - exitStart.get(id);
+				}
+			};
+		}
+
+		@Override public boolean isConnectedTo(Node other) {
+			return getEdge(other) != null;
+		}
+
+		@Override public Edge getEdge(Node n) {
+			if (n == null || n.getClass() != getClass()) return null;
+			int id= id();
+			for (int h= exitStart.get(id); h < exitStart.get(id + 1); ++h) {
+				if (exitNode.get(h) == n.id())
+					return edge(exitEdge.get(h));
+			}
+			return null;
+		}
+
+		@Override public int gems() {
+			return nodeData.get(NODE_INTS * id() + GEMS);
+		}
+
+		@Override int takeGems() {
+			int ret= gems();
+			nodeData.put(NODE_INTS * id() + GEMS, 0);
+			return ret;
+		}
+
+		@Override public String name() {
+			int k= nodeData.get(NODE_INTS * id() + NAME);
+			return k == EARTH ? Util.EARTH_NAME
+				: k == TARGET ? Util.CRASHED_PLANET_NAME
+				: names.get(k);
+		}
+
+		@Override public int x() {
+			return OffHeapGraph.this.x(id());
+		}
+
+		@Override public int y() {
+			return OffHeapGraph.this.y(id());
+		}
+	}
+
+	/** An Edge whose visits are kept in this graph. */
+	private class FlyweightEdge extends Edge {
+
+		/* The index of this Edge. */
+		private final int index;
+
+		/** Constructor: the Edge with index k, between n1 and n2, with the
+		 * given length. */
+		FlyweightEdge(int k, Node n1, Node n2, int length) {
+			super(n1, n2, length);
+			index= k;
+		}
+
+		/** Return the graph this Edge belongs to. */
+		OffHeapGraph graph() {
+			return OffHeapGraph.this;
+		}
+
+		@Override void visit() {
+			int i= EDGE_INTS * index + VISITS;
+			edgeData.put(i, edgeData.get(i) + 1);
+		}
+
+		@Override public int getVisits() {
+			return edgeData.get(EDGE_INTS * index + VISITS);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package models;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import util.Util;
+
+/** An instance is the sequence of planet names given to the Nodes of one
+ * Board: the names listed in planets.txt in a random order.
+ *
+ * The names are read from planets.txt once per process into a table shared
+ * by all instances, so an instance only holds the order of the names it
+ * hands out. */
+final class PlanetNames {
+
+	/* Location of files for board generation */
+	private static final String BOARD_GENERATION_DIRECTORY= Util.DIRECTORY
+		+ "/data/board_generation";
+
+	/* The names in planets.txt, encoded in UTF-8: name i is the bytes
+	 * text[start[i]] .. text[start[i+1]-1]. null until first needed. */
+	private static byte[] text;
+	private static int[] start;
+
+	/* The indices into the table of the first names of this sequence. */
+	private final int[] order;
+
+	/* The number of names in the table. */
+	private final int size;
+
+	/** Constructor: the names of planets.txt shuffled using RNG r, of which
+	 * only the first needed will be used (more are handed out by reusing
+	 * names). This uses r exactly as Collections.shuffle does for a list of
+	 * all the names. */
+	PlanetNames(Random r, int needed) {
+		loadTable();
+		size= start.length - 1;
+
+		int[] all= new int[size];
+		for (int i= 0; i < size; ++i)
+			all[i]= i;
+		for (int i= size; i > 1; --i) { // as in Collections.shuffle
+			int j= r.nextInt(i);
+			int t= all[i - 1];
+			all[i - 1]= all[j];
+			all[j]= t;
+		}
+		order= needed < size ? Arrays.copyOf(all, Math.max(needed, 0)) : all;
+	}
+
+	/** Return the k-th name of this sequence. Once every name has been used,
+	 * names are reused with a number appended ("Ceres 2").
+	 * Precondition: k < the number of names needed, if that is below the
+	 * number of names in planets.txt. */
+	String get(int k) {
+		int i= order[k % size];
+		String name= new String(text, start[i], start[i + 1] - start[i],
+			StandardCharsets.UTF_8);
+		return k < size ? name : name + " " + (k / size + 1);
+	}
+
+	/** Read planets.txt into the shared table, unless that was done already.
+	 * Precondition: planets.txt is in BOARD_GENERATION_DIRECTORY. */
+	private static synchronized void loadTable() {
+		if (text != null) return;
+
+		File f= new File(BOARD_GENERATION_DIRECTORY + "/planets.txt");
+		BufferedReader reader;
+		try {
+			reader= new BufferedReader(new FileReader(f));
+		} catch (FileNotFoundException e) {
+			throw new UncheckedIOException("Cannot find planets.txt", e);
+		}
+		byte[] bytes= new byte[1 << 16];
+		int[] starts= new int[1 << 12];
+		int n= 0; // number of names read
+		try {
+			String line;
+			while ((line= reader.readLine()) != null) {
+				// Strip non-ascii or null characters out of string
+				line= line.replaceAll("[\uFEFF-\uFFFF \u0000]", "");
+				byte[] b= line.getBytes(StandardCharsets.UTF_8);
+				if (n + 2 > starts.length)
+					starts= Arrays.copyOf(starts, 2 * starts.length);
+				int end= starts[n] + b.length;
+				if (end > bytes.length)
+					bytes= Arrays.copyOf(bytes, Math.max(end, 2 * bytes.length));
+				System.arraycopy(b, 0, bytes, starts[n], b.length);
+				starts[++n]= end;
+			}
+			reader.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error reading planets.txt", e);
+		}
+		if (n == 0)
+			throw new IllegalStateException("planets.txt lists no names");
+
+		start= Arrays.copyOf(starts, n + 1);
+		text= Arrays.copyOf(bytes, start[n]);
+	}
+}
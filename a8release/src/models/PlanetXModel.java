@@ -1,7 +1,8 @@
 package models;
 
 import java.awt.geom.Point2D;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import controllers.SearchPhase;
@@ -20,6 +21,7 @@ public class PlanetXModel implements Model, Controllable {
 	private Edge shipEdge; // The Edge on which the ship is traveling. null if still.
 	private double lerpT; // linear interpolation parameter (shipNode to next)
 	private int edgeDist; // current distance traveled on this edge
+	private final List<Edge> departures; // The Edges set out on, in order
 
 	private int fuelRemaining; // Fuel left for rescue. < 0 => failed solution.
 	private int fuelUsed; // Fuel used by the ship
@@ -42,6 +44,7 @@ public class PlanetXModel implements Model, Controllable {
 		shipLocation= new Point2D.Double(shipNode.x(), shipNode.y());
 		shipEdge= null;
 		lerpT= 0d;
+		departures= new ArrayList<>();
 
 		fuelUsed= 0;
 		fuelRemaining= 0;
@@ -72,10 +75,7 @@ public class PlanetXModel implements Model, Controllable {
 
 	@Override
 	public Set<Node> nodes() {
-		HashSet<Node> ns = new HashSet<>();
-		for (Node n : board.nodes())
-			ns.add(n);
-		return ns;
+		return board.nodes();
 	}
 
 	@Override
@@ -83,6 +83,16 @@ public class PlanetXModel implements Model, Controllable {
 		return board.edges();
 	}
 
+	@Override
+	public synchronized int departures() {
+		return departures.size();
+	}
+
+	@Override
+	public synchronized Edge departure(int k) {
+		return departures.get(k);
+	}
+
 	@Override
 	public Node closestNode(Point2D p) {
 		return board.closestNode(p);
@@ -181,14 +191,8 @@ public class PlanetXModel implements Model, Controllable {
 
 	@Override
 	public NodeStatus[] neighbors() {
-		Set<Node> nodes= shipNode.neighbors().keySet();
-		NodeStatus[] ns= new NodeStatus[nodes.size()];
-		int i= 0;
-		for (Node n : nodes) {
-			ns[i]= new NodeStatus(n.id(), n.name(), board.signal(n));
-			++i;
-		}
-		return ns;
+		// a copy, so a solution that changes it cannot change the cached one
+		return board.neighborStatus(shipNode).clone();
 	}
 
 	@Override
@@ -215,6 +219,7 @@ public class PlanetXModel implements Model, Controllable {
 	private synchronized void waitUntilMoved(Node n) {
 		shipEdge= shipNode.getEdge(n);
 		shipEdge.visit();
+		departures.add(shipEdge);
 		while (shipEdge != null) {
 			try {
 				wait();
@@ -229,11 +234,10 @@ public class PlanetXModel implements Model, Controllable {
 		if (failMessage != null)
 			waitUntilAbort();
 
-		for (Node n : shipNode.neighbors().keySet()) {
-			if (n.id() == id) {
-				waitUntilMoved(n);
-				return;
-			}
+		Node n= board.getNode(id);
+		if (n != null && shipNode.getEdge(n) != null) {
+			waitUntilMoved(n);
+			return;
 		}
 		failMessage= "tried to call moveTo to a non-adjacent ID.";
 		waitUntilAbort();
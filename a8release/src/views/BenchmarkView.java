@@ -3,6 +3,7 @@ package views;
 import java.util.Random;
 
 import controllers.Controller;
+import models.BoardPipeline;
 import models.Model;
 import models.Model.Phase;
 
@@ -13,6 +14,15 @@ public class BenchmarkView implements View {
 	public static final int N= 50; // try 50 trials
 	private static final Random R= new Random(42); // choose consistent seeds
 
+	/* Threads generating upcoming Boards; one core is left for the game. */
+	private static final int GENERATORS=
+		Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+	/* Maximum number of Boards generated ahead of the current run. */
+	private static final int LOOKAHEAD= 2 * GENERATORS;
+
+	private BoardPipeline boards; // Boards for the upcoming runs, in order
+
 	private ViewThread thread; // thread for current game
 	private Controller ctrlr; // controller for this game
 	private Model model;
@@ -25,6 +35,9 @@ public class BenchmarkView implements View {
 	public void init(Controller c, Model m) {
 		ctrlr= c;
 		model= m;
+		if (boards == null)
+			boards= new BoardPipeline(nextSeeds(N - 1), c::generateBoard,
+				GENERATORS, LOOKAHEAD);
 		thread= new ViewThread(c, m);
 		thread.run();
 	}
@@ -47,15 +60,24 @@ public class BenchmarkView implements View {
 			+ score + ", and time " + times[i]);
 		++i;
 		if (i >= N) {
+			boards.shutdown();
 			outprintln("");
 			scoreStats();
 			outprintln("");
 			timeStats();
 		} else {
-			ctrlr.newGame(Long.toString(R.nextLong()));
+			ctrlr.newGame(boards.next());
 		}
 	}
 
+	/** Return the next n seeds of R, in order. */
+	private static long[] nextSeeds(int n) {
+		long[] seeds= new long[n];
+		for (int k= 0; k < n; ++k)
+			seeds[k]= R.nextLong();
+		return seeds;
+	}
+
 	/** Print the mean, std. deviation, min, and max of the scores. */
 	public void scoreStats() {
 		double mean = 0d;
@@ -19,6 +19,12 @@ public class GUIView implements View {
 		addTopMenuListeners();
 	}
 
+	/** Set the number of frames the GUI draws per second to fps.
+	 * Throw an IllegalArgumentException if fps <= 0. */
+	public void setFrameRate(int fps) {
+		gui.setFrameRate(fps);
+	}
+
 	/** Add listeners to the top menu to relay user input to the presenter. */
 	private void addTopMenuListeners() {
 		gui.addStartListener(e -> ctrlr.start());